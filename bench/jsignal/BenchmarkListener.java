@@ -0,0 +1,23 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Listener used by the benchmarks.  Counting invocations keeps the JIT from
+ * eliminating the callbacks.
+ */
+public class BenchmarkListener {
+	public int count;
+	
+	public void callback() {
+		count++;
+	}
+	
+	public void callback(int arg0) {
+		count += arg0;
+	}
+	
+	public void callback(int arg0, Object arg1, String arg2) {
+		count += arg0;
+	}
+}
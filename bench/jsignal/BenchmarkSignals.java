@@ -0,0 +1,95 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Creates and populates the signals compared by the benchmarks.
+ */
+public final class BenchmarkSignals {
+	
+	/**
+	 * The signal implementations under measurement.
+	 */
+	public enum Type {
+		SIGNAL, PRIORITY, WEAK, SYNCHRONIZED, CONCURRENT
+	}
+	
+	private BenchmarkSignals() {
+	}
+	
+	/**
+	 * @param arity the number of dispatched arguments, 0, 1 or 3
+	 * @return the parameter types of a signal with the given arity
+	 */
+	static Class<?>[] params(int arity) {
+		switch (arity) {
+		case 0:
+			return new Class<?>[0];
+		case 1:
+			return new Class<?>[] { int.class };
+		case 3:
+			return new Class<?>[] { int.class, Object.class, String.class };
+		default:
+			throw new IllegalArgumentException("Unsupported arity "+arity);
+		}
+	}
+	
+	/**
+	 * @param arity the number of dispatched arguments, 0, 1 or 3
+	 * @return arguments matching <code>params(arity)</code>
+	 */
+	static Object[] args(int arity) {
+		switch (arity) {
+		case 0:
+			return new Object[0];
+		case 1:
+			return new Object[] { 1 };
+		case 3:
+			return new Object[] { 1, new Object(), "benchmark" };
+		default:
+			throw new IllegalArgumentException("Unsupported arity "+arity);
+		}
+	}
+	
+	static ISignalOwner create(Type type, Class<?>... params) {
+		switch (type) {
+		case SIGNAL:
+			return new Signal(params);
+		case PRIORITY:
+			return new PrioritySignal<Integer>(params);
+		case WEAK:
+			return new WeakSignal(params);
+		case SYNCHRONIZED:
+			return Signals.synchronizedSignal((ISignalOwner) new Signal(params));
+		case CONCURRENT:
+			return new ConcurrentSignal(params);
+		default:
+			throw new IllegalArgumentException("Unsupported type "+type);
+		}
+	}
+	
+	/**
+	 * Adds a listener, giving it a priority spread over 16 levels when the signal is a PrioritySignal.
+	 */
+	@SuppressWarnings("unchecked")
+	static void add(ISignalOwner signal, Object listener, int index, boolean addOnce) {
+		if (signal instanceof PrioritySignal) {
+			((PrioritySignal<Integer>) signal).add(listener, "callback", addOnce, index % 16);
+		} else {
+			signal.add(listener, "callback", addOnce);
+		}
+	}
+	
+	/**
+	 * Creates listeners and adds them to a signal.  The listeners are returned so that
+	 * callers can keep them strongly reachable, which WeakSignal requires.
+	 */
+	static BenchmarkListener[] populate(ISignalOwner signal, int count) {
+		BenchmarkListener[] listeners = new BenchmarkListener[count];
+		for (int i = 0; i < count; i++) {
+			listeners[i] = new BenchmarkListener();
+			add(signal, listeners[i], i, false);
+		}
+		return listeners;
+	}
+}
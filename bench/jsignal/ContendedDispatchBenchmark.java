@@ -0,0 +1,54 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures dispatch throughput of the thread safe signals while several threads
+ * dispatch the same signal.  The thread count can be changed with the JMH
+ * <code>-t</code> option.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ContendedDispatchBenchmark {
+	@Param({ "SYNCHRONIZED", "CONCURRENT" })
+	public BenchmarkSignals.Type type;
+	
+	@Param({ "1", "10", "1000" })
+	public int listeners;
+	
+	private ISignalOwner signal;
+	private BenchmarkListener[] retained;
+	private Object[] args;
+	
+	@Setup
+	public void setup() {
+		signal = BenchmarkSignals.create(type, BenchmarkSignals.params(1));
+		retained = BenchmarkSignals.populate(signal, listeners);
+		args = BenchmarkSignals.args(1);
+	}
+	
+	@Benchmark
+	public void dispatch() {
+		signal.dispatch(args);
+	}
+}
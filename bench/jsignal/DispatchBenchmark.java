@@ -0,0 +1,53 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures single threaded dispatch throughput by signal type, listener count and argument arity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+	@Param({ "SIGNAL", "PRIORITY", "WEAK", "SYNCHRONIZED", "CONCURRENT" })
+	public BenchmarkSignals.Type type;
+	
+	@Param({ "1", "10", "1000", "100000" })
+	public int listeners;
+	
+	@Param({ "0", "1", "3" })
+	public int arity;
+	
+	private ISignalOwner signal;
+	private BenchmarkListener[] retained;
+	private Object[] args;
+	
+	@Setup
+	public void setup() {
+		signal = BenchmarkSignals.create(type, BenchmarkSignals.params(arity));
+		retained = BenchmarkSignals.populate(signal, listeners);
+		args = BenchmarkSignals.args(arity);
+	}
+	
+	@Benchmark
+	public void dispatch() {
+		signal.dispatch(args);
+	}
+}
@@ -0,0 +1,63 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures listener churn: adding and removing a listener on a signal that already
+ * holds a number of listeners, and adding an <code>addOnce</code> listener to an empty
+ * signal whose following dispatch removes it again.  The <code>addOnce</code> signal
+ * is kept empty so the dispatch only reaches the churned listener.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+	@Param({ "SIGNAL", "PRIORITY", "WEAK", "SYNCHRONIZED", "CONCURRENT" })
+	public BenchmarkSignals.Type type;
+	
+	@Param({ "1", "10", "1000", "100000" })
+	public int listeners;
+	
+	private ISignalOwner signal;
+	private ISignalOwner onceSignal;
+	private BenchmarkListener[] retained;
+	private BenchmarkListener churned;
+	private int index;
+	
+	@Setup
+	public void setup() {
+		signal = BenchmarkSignals.create(type);
+		retained = BenchmarkSignals.populate(signal, listeners);
+		onceSignal = BenchmarkSignals.create(type);
+		churned = new BenchmarkListener();
+	}
+	
+	@Benchmark
+	public boolean addRemove() {
+		BenchmarkSignals.add(signal, churned, index++, false);
+		return signal.remove(churned);
+	}
+	
+	@Benchmark
+	public void addOnceDispatch() {
+		BenchmarkSignals.add(onceSignal, churned, index++, true);
+		onceSignal.dispatch();
+	}
+}
@@ -0,0 +1,25 @@
+package jsignal;
+
+@javax.annotation.processing.Generated("jsignal.processor.SignalHandlerProcessor")
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class SignalHandlerTest_Listener_SignalAdapter extends jsignal.ListenerAdapter {
+
+	public SignalHandlerTest_Listener_SignalAdapter() {
+		super(jsignal.SignalHandlerTest.Listener.class, new String[] { "onInt", "onPair" }, new Class<?>[][] { { int.class }, { java.lang.String.class, java.lang.Object.class } });
+	}
+
+	@Override
+	public void invoke(int index, Object listener, Object[] args) throws Throwable {
+		jsignal.SignalHandlerTest.Listener target = (jsignal.SignalHandlerTest.Listener) listener;
+		switch (index) {
+		case 0:
+			target.onInt(intArg(args[0]));
+			return;
+		case 1:
+			target.onPair((java.lang.String) args[0], args[1]);
+			return;
+		default:
+			throw new IndexOutOfBoundsException(String.valueOf(index));
+		}
+	}
+}
@@ -0,0 +1,157 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The AsyncSignal class is an extension of Signal that invokes each listener as
+ * a separate task on an <code>Executor</code>, so the dispatching thread never waits
+ * for its listeners.  Any executor can be used, including one that starts a virtual
+ * thread per task.
+ * 
+ * Listeners are registered exactly as with Signal.  The listener set is read, and
+ * <code>addOnce</code> listeners are removed, on the dispatching thread; like Signal,
+ * adding and removing listeners is not thread safe on its own.
+ * 
+ * @see jsignal.Signal
+ */
+public final class AsyncSignal extends Signal {
+	private final Executor executor;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param executor the executor to run listeners on
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public AsyncSignal(Executor executor, Class<?>... params) {
+		super(params);
+		if (executor == null) {
+			throw new NullPointerException();
+		}
+		this.executor = executor;
+	}
+	
+	/**
+	 * Dispatches to all listeners without waiting for them.  Listener failures are
+	 * not reported; use <code>dispatchAsync</code> to observe them.
+	 * 
+	 * @see jsignal.AsyncSignal#dispatchAsync(java.lang.Object[])
+	 */
+	@Override
+	public void dispatch(Object... args) {
+		dispatchAsync(args);
+	}
+	
+	/**
+	 * Submits one task per listener to the executor.
+	 * 
+	 * The returned future completes once every listener has run.  If any listener
+	 * throws, or a task is rejected by the executor, the remaining listeners still run
+	 * and the future completes exceptionally with a single <code>SignalException</code>
+	 * which carries each failure as a suppressed exception.
+	 * 
+	 * @param args the argument list to dispatch to listeners
+	 * @return a future that completes when all listeners have run
+	 * @throws SignalException if the arguments do not match the parameter types of this signal
+	 */
+	public CompletableFuture<Void> dispatchAsync(final Object... args) {
+		expunge();
+		if (listenerMap.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		checkArgs(params, args);
+		recordDispatch();
+		List<ISlot> snapshot = new ArrayList<ISlot>(listenerMap.size());
+		List<Object> listeners = new ArrayList<Object>(listenerMap.size());
+		Iterator<ISlot> iterator = listenerMap.values().iterator();
+		while (iterator.hasNext()) {
+			ISlot slot = iterator.next();
+			Object listener = slot.getListener();
+			if (listener == null) {
+				iterator.remove();
+				detached(slot);
+				continue;
+			}
+			snapshot.add(slot);
+			listeners.add(listener);
+			if (slot.getAddOnce()) {
+				iterator.remove();
+			}
+		}
+		if (snapshot.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		final CompletableFuture<Void> future = new CompletableFuture<Void>();
+		final AtomicInteger remaining = new AtomicInteger(snapshot.size());
+		final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+		for (int i = 0; i < snapshot.size(); i++) {
+			final ISlot slot = snapshot.get(i);
+			final Object listener = listeners.get(i);
+			Runnable task = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						invokeSlot(slot, listener, args);
+					} catch (Throwable e) {
+						failures.add(e);
+					} finally {
+						if (slot.getAddOnce()) {
+							detached(slot);
+						}
+						if (remaining.decrementAndGet() == 0) {
+							complete(future, failures);
+						}
+					}
+				}
+			};
+			try {
+				executor.execute(task);
+			} catch (RejectedExecutionException e) {
+				failures.add(new SignalException("Executor rejected method "+slot.getCallback(), e));
+				if (slot.getAddOnce()) {
+					detached(slot);
+				}
+				if (remaining.decrementAndGet() == 0) {
+					complete(future, failures);
+				}
+			}
+		}
+		return future;
+	}
+	
+	/**
+	 * Completes a dispatch future, aggregating any listener failures into one exception.
+	 * 
+	 * @param future the future to complete
+	 * @param failures the failures collected during the dispatch
+	 */
+	static void complete(CompletableFuture<Void> future, Collection<Throwable> failures) {
+		if (failures.isEmpty()) {
+			future.complete(null);
+			return;
+		}
+		future.completeExceptionally(aggregate(failures));
+	}
+	
+	/**
+	 * @param failures the failures collected during a dispatch, at least one
+	 * @return a single exception carrying each failure as a suppressed exception
+	 */
+	static SignalException aggregate(Collection<Throwable> failures) {
+		SignalException aggregate = new SignalException(failures.size()+" listeners failed during dispatch");
+		for (Throwable failure : failures) {
+			aggregate.addSuppressed(failure);
+		}
+		return aggregate;
+	}
+}
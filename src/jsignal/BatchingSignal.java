@@ -0,0 +1,195 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The BatchingSignal class is an extension of Signal that buffers dispatched
+ * arguments and delivers them to its listeners in batches, amortizing the cost of
+ * a dispatch across many events.
+ * 
+ * Listener callbacks take a single <code>Object[][]</code> parameter, each element
+ * of which is the argument list of one dispatch, in dispatch order.  A batch is
+ * delivered when it reaches the batch size, when its time window has elapsed, or
+ * when <code>flush()</code> is called.
+ * 
+ * Without a scheduler the time window is only checked when the signal is dispatched.
+ * With a scheduler, a flush is scheduled whenever a new batch is started, so idle
+ * signals still deliver their events on time.  All methods synchronize on the signal
+ * so that scheduled flushes are safe.  Batches are delivered like any other dispatch,
+ * so run-to-completion dispatching applies to them.
+ * 
+ * @see jsignal.Signal
+ */
+public final class BatchingSignal extends Signal {
+	private static final Class<?>[] BATCH_PARAMS = { Object[][].class };
+	
+	private final int batchSize;
+	private final long windowNanos;
+	private final ScheduledExecutorService scheduler;
+	private final Object[][] buffer;
+	private final Runnable scheduledFlush = new Runnable() {
+		@Override
+		public void run() {
+			flush();
+		}
+	};
+	private int size;
+	private long batchStart;
+	private ScheduledFuture<?> pendingFlush;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param batchSize the number of dispatches delivered per batch
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public BatchingSignal(int batchSize, Class<?>... params) {
+		this(batchSize, 0, TimeUnit.NANOSECONDS, null, params);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param batchSize the maximum number of dispatches delivered per batch
+	 * @param window the maximum time a dispatch is buffered for, or 0 for no limit
+	 * @param unit the time unit of the window
+	 * @param scheduler the scheduler used to flush idle batches, or null to only check the window on dispatch
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public BatchingSignal(int batchSize, long window, TimeUnit unit, ScheduledExecutorService scheduler, Class<?>... params) {
+		super(params);
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be positive: "+batchSize);
+		}
+		this.batchSize = batchSize;
+		this.windowNanos = unit.toNanos(window);
+		this.scheduler = windowNanos > 0 ? scheduler : null;
+		this.buffer = new Object[batchSize][];
+	}
+	
+	/**
+	 * Adds a listener object to this signal.  The callback method must take a single
+	 * <code>Object[][]</code> parameter, which receives the batch.
+	 * 
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	@Override
+	public synchronized Object add(Object listener, String callback, boolean addOnce) {
+		return add(listener, callback, addOnce, getReferenceStrength());
+	}
+	
+	/**
+	 * Adds a listener object to this signal.  The callback method must take a single
+	 * <code>Object[][]</code> parameter, which receives the batch.
+	 * 
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean, jsignal.ReferenceStrength)
+	 */
+	@Override
+	public synchronized Object add(Object listener, String callback, boolean addOnce, ReferenceStrength strength) {
+		Delegate delegate = Delegate.resolve(listener, callback, BATCH_PARAMS);
+		return addSlot(listener, new Slot(listener, delegate, addOnce, strength, queueFor(strength)));
+	}
+	
+	/**
+	 * @see jsignal.Signal#remove(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean remove(Object listener) {
+		return super.remove(listener);
+	}
+	
+	/**
+	 * Removes all listeners and discards any buffered dispatches.
+	 * 
+	 * @see jsignal.Signal#removeAll()
+	 */
+	@Override
+	public synchronized void removeAll() {
+		super.removeAll();
+		clear();
+	}
+	
+	/**
+	 * @see jsignal.Signal#containsListener(java.lang.Object)
+	 */
+	@Override
+	public synchronized boolean containsListener(Object listener) {
+		return super.containsListener(listener);
+	}
+	
+	/**
+	 * @see jsignal.Signal#numListeners()
+	 */
+	@Override
+	public synchronized int numListeners() {
+		return super.numListeners();
+	}
+	
+	/**
+	 * Buffers the arguments for the next batch, and delivers the batch if it is full
+	 * or its window has elapsed.  The argument array is kept, so callers must not reuse it.
+	 * Dispatches made while no listeners are registered are discarded.
+	 * 
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	public synchronized void dispatch(Object... args) {
+		super.dispatch(args);
+	}
+	
+	@Override
+	synchronized void dispatchNow(Object[] args) {
+		expunge();
+		if (listenerMap.isEmpty()) {
+			return;
+		}
+		checkArgs(params, args);
+		recordDispatch();
+		buffer[size++] = args;
+		if (size == 1) {
+			batchStart = System.nanoTime();
+			if (scheduler != null) {
+				pendingFlush = scheduler.schedule(scheduledFlush, windowNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+		if (size == batchSize || (windowNanos > 0 && System.nanoTime() - batchStart >= windowNanos)) {
+			flush();
+		}
+	}
+	
+	/**
+	 * Delivers all buffered dispatches to the listeners as one batch.
+	 * 
+	 * @throws SignalException if a callback could not be invoked
+	 */
+	public synchronized void flush() {
+		if (size == 0) {
+			return;
+		}
+		Object[] batchArgs = { Arrays.copyOf(buffer, size) };
+		clear();
+		expunge();
+		invokeAll(batchArgs);
+	}
+	
+	/**
+	 * @return the number of dispatches waiting for the next batch
+	 */
+	public synchronized int numBuffered() {
+		return size;
+	}
+	
+	private void clear() {
+		Arrays.fill(buffer, 0, size, null);
+		size = 0;
+		if (pendingFlush != null) {
+			pendingFlush.cancel(false);
+			pendingFlush = null;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts dispatch arguments of one type to and from bytes for a {@link SignalJournal}
+ * or a {@link SharedSignalRing}.
+ * 
+ * <code>encode</code> runs on the dispatching thread for every journaled dispatch, so it
+ * should write straight into the buffer without allocating.  It may throw
+ * <code>BufferOverflowException</code>; the journal then retries in a new segment, and
+ * the ring rejects the dispatch.
+ * 
+ * @param <T> the argument type
+ */
+public interface Codec<T> {
+	
+	/**
+	 * @param value the argument to write, never null
+	 * @param buffer the buffer to write at the current position
+	 */
+	public void encode(T value, ByteBuffer buffer);
+	
+	/**
+	 * @param buffer the buffer to read at the current position
+	 * @return the argument read
+	 */
+	public T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,221 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The codecs known to a journal or replayer, by argument type.  Primitive types,
+ * their wrappers, <code>String</code> and <code>byte[]</code> are known by default.
+ */
+final class Codecs {
+	private static final Map<Class<?>, Codec<?>> DEFAULTS = new HashMap<Class<?>, Codec<?>>();
+	
+	static {
+		Codec<Object> booleanCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.put(ListenerAdapter.booleanArg(value) ? (byte) 1 : (byte) 0);
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.get() != 0;
+			}
+		};
+		Codec<Object> charCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.putChar(ListenerAdapter.charArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.getChar();
+			}
+		};
+		Codec<Object> byteCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.put(ListenerAdapter.byteArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.get();
+			}
+		};
+		Codec<Object> shortCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.putShort(ListenerAdapter.shortArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.getShort();
+			}
+		};
+		Codec<Object> intCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.putInt(ListenerAdapter.intArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.getInt();
+			}
+		};
+		Codec<Object> longCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.putLong(ListenerAdapter.longArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.getLong();
+			}
+		};
+		Codec<Object> floatCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.putFloat(ListenerAdapter.floatArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.getFloat();
+			}
+		};
+		Codec<Object> doubleCodec = new Codec<Object>() {
+			@Override
+			public void encode(Object value, ByteBuffer buffer) {
+				buffer.putDouble(ListenerAdapter.doubleArg(value));
+			}
+			
+			@Override
+			public Object decode(ByteBuffer buffer) {
+				return buffer.getDouble();
+			}
+		};
+		DEFAULTS.put(boolean.class, booleanCodec);
+		DEFAULTS.put(Boolean.class, booleanCodec);
+		DEFAULTS.put(char.class, charCodec);
+		DEFAULTS.put(Character.class, charCodec);
+		DEFAULTS.put(byte.class, byteCodec);
+		DEFAULTS.put(Byte.class, byteCodec);
+		DEFAULTS.put(short.class, shortCodec);
+		DEFAULTS.put(Short.class, shortCodec);
+		DEFAULTS.put(int.class, intCodec);
+		DEFAULTS.put(Integer.class, intCodec);
+		DEFAULTS.put(long.class, longCodec);
+		DEFAULTS.put(Long.class, longCodec);
+		DEFAULTS.put(float.class, floatCodec);
+		DEFAULTS.put(Float.class, floatCodec);
+		DEFAULTS.put(double.class, doubleCodec);
+		DEFAULTS.put(Double.class, doubleCodec);
+		DEFAULTS.put(String.class, new Codec<String>() {
+			@Override
+			public void encode(String value, ByteBuffer buffer) {
+				int length = value.length();
+				buffer.putInt(length);
+				for (int i = 0; i < length; i++) {
+					buffer.putChar(value.charAt(i));
+				}
+			}
+			
+			@Override
+			public String decode(ByteBuffer buffer) {
+				char[] chars = new char[buffer.getInt()];
+				for (int i = 0; i < chars.length; i++) {
+					chars[i] = buffer.getChar();
+				}
+				return new String(chars);
+			}
+		});
+		DEFAULTS.put(byte[].class, new Codec<byte[]>() {
+			@Override
+			public void encode(byte[] value, ByteBuffer buffer) {
+				buffer.putInt(value.length);
+				buffer.put(value);
+			}
+			
+			@Override
+			public byte[] decode(ByteBuffer buffer) {
+				byte[] bytes = new byte[buffer.getInt()];
+				buffer.get(bytes);
+				return bytes;
+			}
+		});
+	}
+	
+	private final Map<Class<?>, Codec<?>> codecs = new HashMap<Class<?>, Codec<?>>(DEFAULTS);
+	
+	<T> void put(Class<T> type, Codec<? super T> codec) {
+		if (type == null || codec == null) {
+			throw new NullPointerException();
+		}
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * @param params the parameter types of a signal
+	 * @return the codec of each parameter type
+	 * @throws SignalException if a parameter type has no codec
+	 */
+	@SuppressWarnings("unchecked")
+	Codec<Object>[] forParams(Class<?>[] params) {
+		Codec<Object>[] result = (Codec<Object>[]) new Codec<?>[params.length];
+		for (int i = 0; i < params.length; i++) {
+			result[i] = (Codec<Object>) codecs.get(params[i]);
+			if (result[i] == null) {
+				throw new SignalException("No codec for parameter type "+params[i].getName());
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Writes arguments, each non-primitive argument preceded by a byte which is 0 for null.
+	 * 
+	 * @param params the parameter types of the signal
+	 * @param codecs the codec of each parameter type
+	 * @param args the arguments, matching the parameter types
+	 * @param buffer the buffer to write at the current position
+	 */
+	static void encode(Class<?>[] params, Codec<Object>[] codecs, Object[] args, ByteBuffer buffer) {
+		for (int i = 0; i < params.length; i++) {
+			Object arg = args[i];
+			if (!params[i].isPrimitive()) {
+				buffer.put(arg == null ? (byte) 0 : (byte) 1);
+				if (arg == null) {
+					continue;
+				}
+			}
+			codecs[i].encode(arg, buffer);
+		}
+	}
+	
+	/**
+	 * Reads arguments written by <code>encode</code>.
+	 * 
+	 * @param params the parameter types of the signal
+	 * @param codecs the codec of each parameter type
+	 * @param buffer the buffer to read at the current position
+	 * @return the arguments
+	 */
+	static Object[] decode(Class<?>[] params, Codec<Object>[] codecs, ByteBuffer buffer) {
+		Object[] args = new Object[params.length];
+		for (int i = 0; i < args.length; i++) {
+			if (!params[i].isPrimitive() && buffer.get() == 0) {
+				continue;
+			}
+			args[i] = codecs[i].decode(buffer);
+		}
+		return args;
+	}
+}
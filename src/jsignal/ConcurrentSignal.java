@@ -0,0 +1,171 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The ConcurrentSignal class is a thread safe signal that does not lock.
+ * Its listeners are kept in an immutable array which is copied and swapped
+ * atomically whenever a listener is added or removed, so dispatching only reads
+ * a snapshot and concurrent dispatches never block each other.
+ * 
+ * Listeners added with <code>addOnce</code> are claimed atomically, and fire exactly
+ * once even when the signal is dispatched from several threads at the same time.
+ * 
+ * This class is best suited to signals that are dispatched far more often than
+ * their listeners change.
+ * 
+ * @see jsignal.Signal
+ */
+public final class ConcurrentSignal implements ISignalOwner {
+	private static final ConcurrentSlot[] EMPTY = new ConcurrentSlot[0];
+	
+	private final Class<?>[] params;
+	private final AtomicReference<ConcurrentSlot[]> slots = new AtomicReference<ConcurrentSlot[]>(EMPTY);
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public ConcurrentSignal(Class<?>... params) {
+		this.params = params;
+	}
+	
+	/**
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce) {
+		Delegate delegate = Delegate.resolve(listener, callback, params);
+		ConcurrentSlot newSlot = new ConcurrentSlot(listener, delegate, addOnce);
+		while (true) {
+			ConcurrentSlot[] current = slots.get();
+			int index = indexOf(current, listener);
+			ConcurrentSlot[] next;
+			if (index < 0) {
+				next = Arrays.copyOf(current, current.length + 1);
+				next[current.length] = newSlot;
+			} else {
+				next = current.clone();
+				next[index] = newSlot;
+			}
+			if (slots.compareAndSet(current, next)) {
+				return index < 0 ? null : current[index].getListener();
+			}
+		}
+	}
+	
+	/**
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String)
+	 */
+	public Object add(Object listener, String callback) {
+		return add(listener, callback, false);
+	}
+	
+	/**
+	 * @see jsignal.Signal#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object listener) {
+		while (true) {
+			ConcurrentSlot[] current = slots.get();
+			int index = indexOf(current, listener);
+			if (index < 0) {
+				return false;
+			}
+			if (slots.compareAndSet(current, without(current, index))) {
+				return true;
+			}
+		}
+	}
+	
+	/**
+	 * @see jsignal.Signal#removeAll()
+	 */
+	@Override
+	public void removeAll() {
+		slots.set(EMPTY);
+	}
+	
+	/**
+	 * Dispatches to a snapshot of the listeners registered at the time of the call.
+	 * Listeners added or removed during the dispatch take effect on the next dispatch.
+	 * 
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	public void dispatch(Object... args) {
+		ConcurrentSlot[] snapshot = slots.get();
+		if (snapshot.length == 0) {
+			return;
+		}
+		Signal.checkArgs(params, args);
+		for (ConcurrentSlot slot : snapshot) {
+			if (slot.getAddOnce()) {
+				if (!slot.claim()) {
+					continue;
+				}
+				removeSlot(slot);
+			}
+			Signal.invoke(slot, slot.getListener(), args);
+		}
+	}
+	
+	/**
+	 * @see jsignal.Signal#containsListener(java.lang.Object)
+	 */
+	@Override
+	public boolean containsListener(Object listener) {
+		return indexOf(slots.get(), listener) >= 0;
+	}
+	
+	/**
+	 * @see jsignal.Signal#numListeners()
+	 */
+	@Override
+	public int numListeners() {
+		return slots.get().length;
+	}
+	
+	private void removeSlot(ConcurrentSlot slot) {
+		while (true) {
+			ConcurrentSlot[] current = slots.get();
+			int index = -1;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == slot) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0 || slots.compareAndSet(current, without(current, index))) {
+				return;
+			}
+		}
+	}
+	
+	private static int indexOf(ConcurrentSlot[] slots, Object listener) {
+		if (listener == null) {
+			return -1;
+		}
+		int hash = listener.hashCode();
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i].hashCode() == hash && slots[i].equals(listener)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static ConcurrentSlot[] without(ConcurrentSlot[] slots, int index) {
+		if (slots.length == 1) {
+			return EMPTY;
+		}
+		ConcurrentSlot[] next = new ConcurrentSlot[slots.length - 1];
+		System.arraycopy(slots, 0, next, 0, index);
+		System.arraycopy(slots, index + 1, next, index, next.length - index);
+		return next;
+	}
+}
@@ -0,0 +1,22 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class ConcurrentSlot extends Slot {
+	private final AtomicBoolean claimed = new AtomicBoolean();
+	
+	public ConcurrentSlot(Object listener, Delegate delegate, boolean addOnce) {
+		super(listener, delegate, addOnce);
+	}
+	
+	/**
+	 * Claims this slot for its single dispatch.  Only the first caller succeeds.
+	 * 
+	 * @return true if the caller may invoke this slot
+	 */
+	public boolean claim() {
+		return claimed.compareAndSet(false, true);
+	}
+}
@@ -0,0 +1,49 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the latest arguments once no dispatch has been made for a whole window.
+ * A burst of dispatches holds a single scheduled task, which is pushed back rather
+ * than rescheduled on every dispatch.
+ * 
+ * @see jsignal.Signals#debounce(ISignalOwner, long, TimeUnit, IScheduler)
+ */
+final class DebouncedSignal extends TimedSignal {
+	private final Runnable fire = new Runnable() {
+		@Override
+		public void run() {
+			fire();
+		}
+	};
+	private Object[] pending;
+	private long deadline;
+	private ITimeout timeout;
+	
+	DebouncedSignal(ISignalOwner signal, IScheduler scheduler, long window, TimeUnit unit) {
+		super(signal, scheduler, window, unit);
+	}
+	
+	@Override
+	public synchronized void dispatch(Object... args) {
+		pending = args;
+		deadline = scheduler.nanoTime() + windowNanos;
+		if (timeout == null) {
+			timeout = schedule(fire, windowNanos);
+		}
+	}
+	
+	private synchronized void fire() {
+		long remaining = deadline - scheduler.nanoTime();
+		if (remaining > 0) {
+			timeout = schedule(fire, remaining);
+			return;
+		}
+		timeout = null;
+		Object[] args = pending;
+		pending = null;
+		emit(args);
+	}
+}
@@ -0,0 +1,220 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A resolved callback method together with its invoker handle.
+ * 
+ * Callbacks are resolved through the {@link ListenerAdapter} generated for the listener
+ * class or one of its superclasses when there is one, and reflectively otherwise.
+ * Resolutions are cached per listener class, keyed by callback name and parameter types,
+ * so registering many listeners of the same class only reflects on the class once.
+ * Missing or inaccessible methods are cached too, so repeated failing registrations do not
+ * walk the method table again.  The cache hangs off a <code>ClassValue</code>, which lets
+ * listener classes and their class loaders be unloaded, and holds at most
+ * {@value #MAX_CALLBACKS_PER_CLASS} callbacks per class; further callbacks are resolved
+ * without being cached.
+ */
+final class Delegate {
+	static final int MAX_CALLBACKS_PER_CLASS = 64;
+	
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+	private static final MethodHandle ADAPTER_INVOKER;
+	
+	static {
+		try {
+			ADAPTER_INVOKER = MethodHandles.lookup().findVirtual(ListenerAdapter.class, "invoke",
+				MethodType.methodType(void.class, int.class, Object.class, Object[].class));
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private static final ClassValue<ConcurrentMap<Key, Object>> CACHE = new ClassValue<ConcurrentMap<Key, Object>>() {
+		@Override
+		protected ConcurrentMap<Key, Object> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<Key, Object>();
+		}
+	};
+	
+	private final Class<?> declaringType;
+	private final String name;
+	private final Class<?>[] params;
+	private final String description;
+	private final MethodHandle invoker;
+	private Method method;
+	
+	private Delegate(Class<?> declaringType, String name, Class<?>[] params, String description, MethodHandle invoker, Method method) {
+		this.declaringType = declaringType;
+		this.name = name;
+		this.params = params;
+		this.description = description;
+		this.invoker = invoker;
+		this.method = method;
+	}
+	
+	/**
+	 * @return the name of the callback method
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * Returns the callback method.  Callbacks invoked through a generated adapter only
+	 * reflect on their method the first time it is asked for.
+	 * 
+	 * @return the callback method
+	 * @throws SignalException if the method cannot be reflected on
+	 */
+	public synchronized Method getMethod() {
+		if (method == null) {
+			try {
+				method = declaringType.getDeclaredMethod(name, params);
+			} catch (NoSuchMethodException e) {
+				throw new SignalException("Could not find method "+description, e);
+			} catch (SecurityException e) {
+				throw new SignalException("Could not access method "+description, e);
+			}
+		}
+		return method;
+	}
+	
+	/**
+	 * @return a handle of type <code>(Object, Object[])void</code> which invokes the method with spread arguments
+	 */
+	public MethodHandle getInvoker() {
+		return invoker;
+	}
+	
+	/**
+	 * Resolves the public callback method on the listener's class that matches a signal's parameter types.
+	 * 
+	 * @param listener the listener object
+	 * @param callback the name of the callback method
+	 * @param params the parameter types of the signal
+	 * @return the resolved callback
+	 * @throws SignalException if a security violation occurs while retrieving the callback method, or if no such method exists
+	 */
+	static Delegate resolve(Object listener, String callback, Class<?>[] params) {
+		Class<?> type = listener.getClass();
+		ConcurrentMap<Key, Object> callbacks = CACHE.get(type);
+		Key key = new Key(callback, params);
+		Object resolved = callbacks.get(key);
+		if (resolved == null) {
+			try {
+				resolved = lookup(type, callback, params);
+			} catch (SecurityException e) {
+				// depends on the security policy in effect, so it is not cached
+				throw new SignalException("Could not access method `"+type.getName()+"."+callback+"`", e);
+			}
+			if (callbacks.size() < MAX_CALLBACKS_PER_CLASS) {
+				Object raced = callbacks.putIfAbsent(key.copy(), resolved);
+				if (raced != null) {
+					resolved = raced;
+				}
+			}
+		}
+		if (resolved instanceof Delegate) {
+			return (Delegate) resolved;
+		}
+		Failure failure = (Failure) resolved;
+		throw new SignalException(failure.message, failure.cause);
+	}
+	
+	/**
+	 * Converts a reflected callback method into a handle of type <code>(Object, Object[])void</code>
+	 * which can be invoked exactly without further access checks or reflective wrapping.
+	 * The listener is deliberately left unbound so weak slots do not retain it.
+	 * 
+	 * @param method the callback method
+	 * @return the invoker handle
+	 * @throws IllegalAccessException if the method is not accessible
+	 */
+	private static MethodHandle createInvoker(Method method) throws IllegalAccessException {
+		MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+		return handle.asSpreader(Object[].class, method.getParameterTypes().length).asType(INVOKER_TYPE);
+	}
+	
+	private static Object lookup(Class<?> type, String callback, Class<?>[] params) {
+		for (Class<?> declaring = type; declaring != null; declaring = declaring.getSuperclass()) {
+			ListenerAdapter adapter = ListenerAdapter.find(declaring);
+			int index = adapter == null ? -1 : adapter.indexOf(callback, params);
+			if (index >= 0) {
+				MethodHandle invoker = MethodHandles.insertArguments(ADAPTER_INVOKER, 0, adapter, index);
+				return new Delegate(declaring, callback, params.clone(), adapter.describe(index), invoker, null);
+			}
+		}
+		Method method;
+		try {
+			method = type.getMethod(callback, params);
+		} catch (NoSuchMethodException e) {
+			return new Failure("Could not find method `"+type.getName()+"."+callback+"`", e);
+		}
+		try {
+			return new Delegate(method.getDeclaringClass(), callback, method.getParameterTypes(), method.toString(), createInvoker(method), method);
+		} catch (IllegalAccessException e) {
+			return new Failure("Could not access method "+method, e);
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return description;
+	}
+	
+	/**
+	 * A cached resolution failure.  A fresh SignalException is thrown for every lookup
+	 * so each caller gets its own stack trace.
+	 */
+	private static final class Failure {
+		final String message;
+		final Throwable cause;
+	
+		Failure(String message, Throwable cause) {
+			this.message = message;
+			this.cause = cause;
+		}
+	}
+	
+	private static final class Key {
+		private final String callback;
+		private final Class<?>[] params;
+		private final int hashCode;
+	
+		Key(String callback, Class<?>[] params) {
+			this.callback = callback;
+			this.params = params;
+			this.hashCode = 31 * callback.hashCode() + Arrays.hashCode(params);
+		}
+	
+		/**
+		 * @return a key which does not share the caller's parameter array
+		 */
+		Key copy() {
+			return new Key(callback, params.clone());
+		}
+	
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return callback.equals(other.callback) && Arrays.equals(params, other.params);
+		}
+	}
+}
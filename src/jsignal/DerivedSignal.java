@@ -0,0 +1,279 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.ArrayDeque;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A signal derived from typed signals through <code>map</code>, <code>filter</code>,
+ * <code>merge</code> and <code>zip</code> operators.
+ * 
+ * Operators do not create intermediate signals.  When the first listener is added, the
+ * whole chain of operators is fused into a single listener on each source signal, which
+ * applies the operators as plain method calls and dispatches the result to this signal's
+ * listeners, so a chain of operators costs one dispatch however long it is.  When the
+ * last listener is removed the source listeners are removed too, so an unobserved
+ * derived signal costs nothing.  Each derived signal with listeners fuses its own chain,
+ * values are not shared between derived signals built on a common operator.
+ * 
+ * Like the typed signals it is built on, this class is not thread safe.
+ * 
+ * @param <T> the type of the derived values
+ * @see jsignal.Signals#from(Signal1)
+ */
+public abstract class DerivedSignal <T> implements ISignal {
+	private final Signal1<T> output = new Signal1<T>();
+	private final Signal1.Listener<T> sink = new Signal1.Listener<T>() {
+		@Override
+		public void handle(T value) {
+			output.dispatch(value);
+			// addOnce listeners may have been the last
+			update();
+		}
+	};
+	private Runnable disconnect;
+	
+	DerivedSignal() {
+	}
+	
+	/**
+	 * Registers a typed listener to this signal.  If an equal listener is already
+	 * registered it is replaced.
+	 * 
+	 * @param listener the listener to add
+	 * @param addOnce if true, once this signal has dispatched the listener is removed
+	 * @return the replaced listener, or null if no such listener was replaced
+	 * @see jsignal.TypedSignal#add(Object, boolean)
+	 */
+	public Object add(Signal1.Listener<T> listener, boolean addOnce) {
+		Object previous = output.add(listener, addOnce);
+		update();
+		return previous;
+	}
+	
+	/**
+	 * @see jsignal.DerivedSignal#add(jsignal.Signal1.Listener, boolean)
+	 */
+	public Object add(Signal1.Listener<T> listener) {
+		return add(listener, false);
+	}
+	
+	/**
+	 * Registers a reflective listener, whose callback must take a single <code>Object</code>.
+	 * 
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce) {
+		Object previous = output.add(listener, callback, addOnce);
+		update();
+		return previous;
+	}
+	
+	@Override
+	public boolean remove(Object listener) {
+		boolean removed = output.remove(listener);
+		update();
+		return removed;
+	}
+	
+	/**
+	 * Unregisters every listener, which disconnects this signal from its sources.
+	 */
+	public void removeAll() {
+		output.removeAll();
+		update();
+	}
+	
+	@Override
+	public boolean containsListener(Object listener) {
+		return output.containsListener(listener);
+	}
+	
+	@Override
+	public int numListeners() {
+		return output.numListeners();
+	}
+	
+	/**
+	 * @return if this signal is listening to its sources
+	 */
+	public boolean isConnected() {
+		return disconnect != null;
+	}
+	
+	/**
+	 * @param function transforms each value
+	 * @return a signal dispatching the transformed values
+	 */
+	public <R> DerivedSignal<R> map(final Function<? super T, ? extends R> function) {
+		if (function == null) {
+			throw new NullPointerException();
+		}
+		final DerivedSignal<T> parent = this;
+		return new DerivedSignal<R>() {
+			@Override
+			Runnable connect(final Signal1.Listener<? super R> sink) {
+				return parent.connect(new Signal1.Listener<T>() {
+					@Override
+					public void handle(T value) {
+						sink.handle(function.apply(value));
+					}
+				});
+			}
+		};
+	}
+	
+	/**
+	 * @param predicate tests each value
+	 * @return a signal dispatching the values matching the predicate
+	 */
+	public DerivedSignal<T> filter(final Predicate<? super T> predicate) {
+		if (predicate == null) {
+			throw new NullPointerException();
+		}
+		final DerivedSignal<T> parent = this;
+		return new DerivedSignal<T>() {
+			@Override
+			Runnable connect(final Signal1.Listener<? super T> sink) {
+				return parent.connect(new Signal1.Listener<T>() {
+					@Override
+					public void handle(T value) {
+						if (predicate.test(value)) {
+							sink.handle(value);
+						}
+					}
+				});
+			}
+		};
+	}
+	
+	/**
+	 * @param other another signal of the same type
+	 * @return a signal dispatching the values of both signals, in the order they are dispatched
+	 */
+	public DerivedSignal<T> merge(final DerivedSignal<? extends T> other) {
+		if (other == null) {
+			throw new NullPointerException();
+		}
+		final DerivedSignal<T> parent = this;
+		return new DerivedSignal<T>() {
+			@Override
+			Runnable connect(Signal1.Listener<? super T> sink) {
+				final Runnable first = parent.connect(sink);
+				final Runnable second = other.connect(sink);
+				return new Runnable() {
+					@Override
+					public void run() {
+						first.run();
+						second.run();
+					}
+				};
+			}
+		};
+	}
+	
+	/**
+	 * Pairs the values of this signal with the values of another signal in the order
+	 * they are dispatched, so the n-th value of one is combined with the n-th value of
+	 * the other.  Values waiting for their pair are buffered while the signal is
+	 * connected, and dropped when it disconnects.  Null values cannot be buffered.
+	 * 
+	 * @param other the signal to pair values with
+	 * @param combiner combines each pair of values
+	 * @return a signal dispatching the combined values
+	 */
+	public <U,R> DerivedSignal<R> zip(final DerivedSignal<U> other, final BiFunction<? super T, ? super U, ? extends R> combiner) {
+		if (other == null || combiner == null) {
+			throw new NullPointerException();
+		}
+		final DerivedSignal<T> parent = this;
+		return new DerivedSignal<R>() {
+			@Override
+			Runnable connect(final Signal1.Listener<? super R> sink) {
+				final ArrayDeque<T> lefts = new ArrayDeque<T>();
+				final ArrayDeque<U> rights = new ArrayDeque<U>();
+				final Runnable first = parent.connect(new Signal1.Listener<T>() {
+					@Override
+					public void handle(T value) {
+						if (rights.isEmpty()) {
+							lefts.add(value);
+						} else {
+							sink.handle(combiner.apply(value, rights.poll()));
+						}
+					}
+				});
+				final Runnable second = other.connect(new Signal1.Listener<U>() {
+					@Override
+					public void handle(U value) {
+						if (lefts.isEmpty()) {
+							rights.add(value);
+						} else {
+							sink.handle(combiner.apply(lefts.poll(), value));
+						}
+					}
+				});
+				return new Runnable() {
+					@Override
+					public void run() {
+						first.run();
+						second.run();
+						lefts.clear();
+						rights.clear();
+					}
+				};
+			}
+		};
+	}
+	
+	/**
+	 * Fuses this signal's operators in front of a sink and attaches them to the sources.
+	 * 
+	 * @param sink receives the values of this signal
+	 * @return detaches the fused operators from the sources
+	 */
+	abstract Runnable connect(Signal1.Listener<? super T> sink);
+	
+	/**
+	 * @param source a typed signal
+	 * @return a derived signal dispatching the values of the source
+	 */
+	static <T> DerivedSignal<T> from(final Signal1<T> source) {
+		if (source == null) {
+			throw new NullPointerException();
+		}
+		return new DerivedSignal<T>() {
+			@Override
+			Runnable connect(final Signal1.Listener<? super T> sink) {
+				// a fresh listener, so connecting the same source twice adds two listeners
+				final Signal1.Listener<T> listener = new Signal1.Listener<T>() {
+					@Override
+					public void handle(T value) {
+						sink.handle(value);
+					}
+				};
+				source.add(listener);
+				return new Runnable() {
+					@Override
+					public void run() {
+						source.remove(listener);
+					}
+				};
+			}
+		};
+	}
+	
+	private void update() {
+		if (output.numListeners() > 0) {
+			if (disconnect == null) {
+				disconnect = connect(sink);
+			}
+		} else if (disconnect != null) {
+			disconnect.run();
+			disconnect = null;
+		}
+	}
+}
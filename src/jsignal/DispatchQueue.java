@@ -0,0 +1,55 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.ArrayDeque;
+
+/**
+ * The per thread queue of run-to-completion dispatches.  The outermost dispatch on a
+ * thread drains it; dispatches made by listeners while it drains are queued.
+ * 
+ * @see jsignal.Signal#setRunToCompletion(boolean)
+ */
+final class DispatchQueue {
+	private static final ThreadLocal<DispatchQueue> CURRENT = new ThreadLocal<DispatchQueue>() {
+		@Override
+		protected DispatchQueue initialValue() {
+			return new DispatchQueue();
+		}
+	};
+	
+	private final ArrayDeque<Signal> signals = new ArrayDeque<Signal>();
+	private final ArrayDeque<Object[]> arguments = new ArrayDeque<Object[]>();
+	private boolean draining;
+	
+	private DispatchQueue() {
+	}
+	
+	/**
+	 * Runs a dispatch now if no run-to-completion dispatch is running on this thread,
+	 * followed by every dispatch queued meanwhile, or queues it otherwise.
+	 * 
+	 * @param signal the signal to dispatch
+	 * @param args the arguments to dispatch with
+	 */
+	static void run(Signal signal, Object[] args) {
+		DispatchQueue queue = CURRENT.get();
+		if (queue.draining) {
+			queue.signals.add(signal);
+			// ArrayDeque does not take nulls
+			queue.arguments.add(args == null ? new Object[0] : args);
+			return;
+		}
+		queue.draining = true;
+		try {
+			signal.dispatchNow(args);
+			while (!queue.signals.isEmpty()) {
+				queue.signals.poll().dispatchNow(queue.arguments.poll());
+			}
+		} finally {
+			queue.signals.clear();
+			queue.arguments.clear();
+			queue.draining = false;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler which runs tasks on a <code>ScheduledExecutorService</code>, measuring
+ * time with <code>System.nanoTime()</code>.
+ */
+public final class ExecutorScheduler implements IScheduler {
+	private final ScheduledExecutorService executor;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param executor the executor to run tasks on
+	 */
+	public ExecutorScheduler(ScheduledExecutorService executor) {
+		if (executor == null) {
+			throw new NullPointerException();
+		}
+		this.executor = executor;
+	}
+	
+	@Override
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+	
+	@Override
+	public ITimeout schedule(Runnable task, long delay, TimeUnit unit) {
+		final ScheduledFuture<?> future = executor.schedule(task, delay, unit);
+		return new ITimeout() {
+			@Override
+			public boolean cancel() {
+				return future.cancel(false);
+			}
+		};
+	}
+}
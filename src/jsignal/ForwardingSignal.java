@@ -0,0 +1,70 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Base class of the wrappers which pass each dispatch on to the wrapped signal and
+ * then forward it somewhere else under a signal id, such as a journal, a shared ring
+ * or remote clients.  Listener operations are passed straight to the wrapped signal.
+ * 
+ * Dispatches are forwarded even when the wrapped signal has no listeners or one of
+ * them fails, since the receiving side may have listeners of its own.
+ */
+abstract class ForwardingSignal implements ISignalOwner {
+	final int signalId;
+	final ISignalOwner signal;
+	final Class<?>[] params;
+	final Codec<Object>[] codecs;
+	
+	ForwardingSignal(int signalId, ISignalOwner signal, Class<?>[] params, Codec<Object>[] codecs) {
+		this.signalId = signalId;
+		this.signal = signal;
+		this.params = params.clone();
+		this.codecs = codecs;
+	}
+	
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce) {
+		return signal.add(listener, callback, addOnce);
+	}
+	
+	@Override
+	public boolean remove(Object listener) {
+		return signal.remove(listener);
+	}
+	
+	@Override
+	public boolean containsListener(Object listener) {
+		return signal.containsListener(listener);
+	}
+	
+	/**
+	 * @return the number of listeners of the wrapped signal, not counting the receiving side
+	 */
+	@Override
+	public int numListeners() {
+		return signal.numListeners();
+	}
+	
+	@Override
+	public void removeAll() {
+		signal.removeAll();
+	}
+	
+	@Override
+	public void dispatch(Object... args) {
+		Signal.checkArgs(params, args);
+		try {
+			signal.dispatch(args);
+		} finally {
+			forward(args);
+		}
+	}
+	
+	/**
+	 * Called after each dispatch of the wrapped signal.
+	 * 
+	 * @param args the arguments, already checked against the parameter types
+	 */
+	abstract void forward(Object[] args);
+}
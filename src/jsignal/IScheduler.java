@@ -0,0 +1,31 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Defines a clock together with a way to run tasks later, measured by that clock.
+ * Time-based signal wrappers use a scheduler for both, so a controllable scheduler
+ * makes their behavior deterministic.
+ * 
+ * @see jsignal.Signals#sharedScheduler()
+ * @see jsignal.ManualScheduler
+ */
+public interface IScheduler {
+	
+	/**
+	 * @return the current time in nanoseconds, only meaningful relative to other values of this scheduler
+	 */
+	public long nanoTime();
+	
+	/**
+	 * Runs a task once, after a delay.
+	 * 
+	 * @param task the task to run
+	 * @param delay the delay, zero or negative to run as soon as possible
+	 * @param unit the unit of the delay
+	 * @return a handle which cancels the task
+	 */
+	public ITimeout schedule(Runnable task, long delay, TimeUnit unit);
+}
@@ -2,13 +2,28 @@
 
 package jsignal;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 
 interface ISlot {
 
 	public Object getListener();
 	
+	/**
+	 * @return the callback method
+	 * @see jsignal.Delegate#getMethod()
+	 */
 	public Method getDelegate();
 	
+	/**
+	 * @return the resolved callback, whose <code>toString()</code> describes the callback method without reflecting on it
+	 */
+	public Delegate getCallback();
+	
+	/**
+	 * @return a handle of type <code>(Object, Object[])void</code> that invokes the delegate on a listener with spread arguments
+	 */
+	public MethodHandle getInvoker();
+	
 	public boolean getAddOnce();
 }
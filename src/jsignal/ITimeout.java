@@ -0,0 +1,18 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Defines a handle to a task scheduled to run later.
+ * 
+ * @see jsignal.IScheduler#schedule(Runnable, long, java.util.concurrent.TimeUnit)
+ */
+public interface ITimeout {
+	
+	/**
+	 * Cancels the task if it has not run yet.
+	 * 
+	 * @return if the task was cancelled, false if it already ran or was cancelled before
+	 */
+	public boolean cancel();
+}
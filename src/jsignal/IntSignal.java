@@ -0,0 +1,65 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * A typed signal which dispatches a single <code>int</code> to its listeners
+ * without boxing it, so a dispatch allocates nothing.
+ * 
+ * Reflective listeners may still be added, their callback must take one <code>int</code>
+ * parameter and receive a boxed value.
+ * 
+ * @see jsignal.TypedSignal
+ */
+public final class IntSignal extends TypedSignal<IntSignal.Listener> {
+
+	/**
+	 * Listener for an <code>IntSignal</code>.
+	 */
+	public interface Listener {
+		
+		/**
+		 * Called when the signal is dispatched.
+		 * 
+		 * @param value the dispatched value
+		 */
+		public void handle(int value);
+	}
+	
+	/**
+	 * Constructor
+	 */
+	public IntSignal() {
+		super(int.class);
+	}
+	
+	/**
+	 * Dispatches a value to all listeners registered to this signal.
+	 * 
+	 * @param value the value to dispatch
+	 * @throws SignalException if the callback of a reflective listener could not be invoked
+	 */
+	public void dispatch(int value) {
+		for (TypedSlot<Listener> slot : slots()) {
+			if (fire(slot)) {
+				slot.getListener().handle(value);
+			}
+		}
+	}
+	
+	@Override
+	void dispatchArgs(Object[] args) {
+		Object arg = args[0];
+		dispatch(arg instanceof Character ? ((Character) arg).charValue() : ((Number) arg).intValue());
+	}
+	
+	@Override
+	Listener adapt(final ISlot slot) {
+		return new Listener() {
+			@Override
+			public void handle(int value) {
+				invoke(slot, value);
+			}
+		};
+	}
+}
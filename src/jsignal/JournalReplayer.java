@@ -0,0 +1,124 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The JournalReplayer class dispatches the records of a {@link SignalJournal} again, in
+ * the order they were recorded.
+ * 
+ * Each signal id to replay is registered with the dispatcher to replay it to and the
+ * parameter types it was recorded with; records of other signal ids are skipped.  Custom
+ * codecs must be set with the same types as when recording.
+ * 
+ * @see jsignal.SignalJournal
+ */
+public final class JournalReplayer {
+	private final Path directory;
+	private final Codecs codecs = new Codecs();
+	private final Map<Integer, ReplayTarget> targets = new HashMap<Integer, ReplayTarget>();
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param directory the directory holding the journal's segments
+	 */
+	public JournalReplayer(Path directory) {
+		this.directory = directory;
+	}
+	
+	/**
+	 * Sets the codec for an argument type, replacing any built-in codec.
+	 * Only signals registered afterwards use it.
+	 * 
+	 * @param type the argument type
+	 * @param codec the codec
+	 */
+	public <T> void setCodec(Class<T> type, Codec<? super T> codec) {
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * Replays the records of a signal id to a dispatcher.
+	 * 
+	 * @param signalId the id the signal was recorded with
+	 * @param target the dispatcher to replay to
+	 * @param params the parameter types the signal was recorded with
+	 * @throws SignalException if a parameter type has no codec
+	 */
+	public void register(int signalId, IDispatcher target, Class<?>... params) {
+		targets.put(signalId, new ReplayTarget(target, params, codecs.forParams(params)));
+	}
+	
+	/**
+	 * Replays every segment of the journal.
+	 * 
+	 * @param recordedSpeed if true, dispatches are spaced out as they were recorded, otherwise they are replayed as fast as possible
+	 * @return the number of dispatches replayed
+	 * @throws IOException if a segment cannot be read
+	 * @throws SignalException if a segment is not a journal segment
+	 */
+	public long replay(boolean recordedSpeed) throws IOException {
+		long count = 0;
+		long firstTimestamp = 0;
+		long startNanos = 0;
+		long last = SignalJournal.lastSegmentIndex(directory);
+		for (long index = 1; index <= last; index++) {
+			Path file = directory.resolve(SignalJournal.segmentName(index));
+			if (!Files.exists(file)) {
+				continue;
+			}
+			MappedByteBuffer segment;
+			FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+			try {
+				segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			} finally {
+				channel.close();
+			}
+			if (segment.remaining() < 4 || segment.getInt() != SignalJournal.MAGIC) {
+				throw new SignalException("Not a journal segment: "+file);
+			}
+			while (segment.remaining() >= SignalJournal.HEADER_SIZE) {
+				int start = segment.position();
+				int length = segment.getInt();
+				if (length == 0) {
+					// the rest of the segment was never written
+					break;
+				}
+				long timestamp = segment.getLong();
+				int signalId = segment.getInt();
+				ReplayTarget target = targets.get(signalId);
+				if (target != null) {
+					if (recordedSpeed) {
+						if (count == 0) {
+							firstTimestamp = timestamp;
+							startNanos = System.nanoTime();
+						} else {
+							awaitNanos(startNanos + (timestamp - firstTimestamp));
+						}
+					}
+					target.dispatch(segment);
+					count++;
+				}
+				segment.position(start + length);
+			}
+		}
+		return count;
+	}
+	
+	private static void awaitNanos(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+}
@@ -0,0 +1,22 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Journals each dispatch after passing it on to the wrapped signal.
+ * 
+ * @see jsignal.SignalJournal#record(int, ISignalOwner, Class...)
+ */
+final class JournalingSignal extends ForwardingSignal {
+	private final SignalJournal journal;
+	
+	JournalingSignal(SignalJournal journal, int signalId, ISignalOwner signal, Class<?>[] params, Codec<Object>[] codecs) {
+		super(signalId, signal, params, codecs);
+		this.journal = journal;
+	}
+	
+	@Override
+	void forward(Object[] args) {
+		journal.append(signalId, params, codecs, args);
+	}
+}
@@ -0,0 +1,221 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The KeyedSignal class is an extension of Signal whose listeners can be registered
+ * against a key.  Each dispatch extracts a key from one of its arguments and only invokes
+ * the listeners registered against that key, found with a single hash lookup, together
+ * with the catch-all listeners added without a key.
+ * 
+ * Keys are compared with <code>equals</code> and <code>hashCode</code>.  Keys with no
+ * listeners left are dropped, so short lived keys such as session ids do not accumulate.
+ * 
+ * @see jsignal.Signal
+ */
+public final class KeyedSignal extends Signal {
+	private final int keyIndex;
+	private final Function<Object, ?> keyFunction;
+	private final Map<Object, KeySignal> keyed = new HashMap<Object, KeySignal>();
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param keyIndex the index of the dispatch argument that is the key
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public KeyedSignal(int keyIndex, Class<?>... params) {
+		this(keyIndex, Function.identity(), params);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param keyIndex the index of the dispatch argument the key is extracted from
+	 * @param keyFunction extracts the key from that argument, for example an account id from an order
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public KeyedSignal(int keyIndex, Function<Object, ?> keyFunction, Class<?>... params) {
+		super(params);
+		if (keyIndex < 0 || keyIndex >= params.length) {
+			throw new IllegalArgumentException("Key index "+keyIndex+" is not a parameter index");
+		}
+		if (keyFunction == null) {
+			throw new NullPointerException();
+		}
+		this.keyIndex = keyIndex;
+		this.keyFunction = keyFunction;
+	}
+	
+	/**
+	 * Registers a listener which is only invoked for dispatches with the given key.
+	 * A listener can be registered against several keys, and also as a catch-all listener.
+	 * 
+	 * @param key the key the listener is interested in
+	 * @param listener the listener object to add
+	 * @param callback the callback method, as a String, to invoke when this signal is dispatched with the key
+	 * @param addOnce if true, once this signal has dispatched the key the listener is removed from it
+	 * @return the old listener of the key with the same <code>hashCode()</code> value, or null if no such listener was replaced
+	 * @throws SignalException if a security violation occurs while retrieving the callback method, or if no such method exists
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	public Object add(Object key, Object listener, String callback, boolean addOnce) {
+		KeySignal signal = keyed.get(key);
+		if (signal == null) {
+			signal = new KeySignal();
+			Object previous = signal.add(listener, callback, addOnce, getReferenceStrength());
+			keyed.put(key, signal);
+			return previous;
+		}
+		return signal.add(listener, callback, addOnce, getReferenceStrength());
+	}
+	
+	/**
+	 * @see jsignal.KeyedSignal#add(java.lang.Object, java.lang.Object, java.lang.String, boolean)
+	 */
+	public Object add(Object key, Object listener, String callback) {
+		return add(key, listener, callback, false);
+	}
+	
+	/**
+	 * Unregisters a listener from a key.
+	 * 
+	 * @param key the key the listener was registered against
+	 * @param listener the listener to remove
+	 * @return if the listener was successfully removed
+	 */
+	public boolean remove(Object key, Object listener) {
+		KeySignal signal = keyed.get(key);
+		if (signal == null) {
+			return false;
+		}
+		boolean removed = signal.remove(listener);
+		if (signal.listenerMap.isEmpty()) {
+			keyed.remove(key);
+		}
+		return removed;
+	}
+	
+	/**
+	 * @param key a key
+	 * @param listener the listener to check for
+	 * @return if the listener is registered against the key
+	 */
+	public boolean containsListener(Object key, Object listener) {
+		KeySignal signal = keyed.get(key);
+		return signal != null && signal.containsListener(listener);
+	}
+	
+	/**
+	 * @param key a key
+	 * @return the number of listeners registered against the key, not counting catch-all listeners
+	 */
+	public int numListeners(Object key) {
+		KeySignal signal = keyed.get(key);
+		return signal == null ? 0 : signal.numListeners();
+	}
+	
+	/**
+	 * @return the number of catch-all listeners plus the listeners registered against every key
+	 */
+	@Override
+	public int numListeners() {
+		int count = super.numListeners();
+		Iterator<KeySignal> iterator = keyed.values().iterator();
+		while (iterator.hasNext()) {
+			int keyCount = iterator.next().numListeners();
+			if (keyCount == 0) {
+				// every listener of the key was collected
+				iterator.remove();
+			}
+			count += keyCount;
+		}
+		return count;
+	}
+	
+	/**
+	 * Removes the catch-all listeners and the listeners of every key.
+	 * 
+	 * @see jsignal.Signal#removeAll()
+	 */
+	@Override
+	public void removeAll() {
+		super.removeAll();
+		keyed.clear();
+	}
+	
+	/**
+	 * Dispatches to the catch-all listeners and to the listeners registered against the
+	 * key of the arguments.
+	 * 
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	void dispatchNow(Object[] args) {
+		expunge();
+		if (listenerMap.isEmpty() && keyed.isEmpty()) {
+			return;
+		}
+		checkArgs(params, args);
+		Object key = keyFunction.apply(args[keyIndex]);
+		KeySignal signal = keyed.get(key);
+		if (signal != null) {
+			signal.expunge();
+		}
+		if (listenerMap.isEmpty() && (signal == null || signal.listenerMap.isEmpty())) {
+			return;
+		}
+		recordDispatch();
+		invokeAll(args);
+		if (signal != null) {
+			signal.invokeAll(args);
+			if (signal.listenerMap.isEmpty()) {
+				keyed.remove(key);
+			}
+		}
+	}
+	
+	/**
+	 * Applies to the catch-all listeners and the listeners of every key.
+	 * 
+	 * @see jsignal.Signal#setMetrics(jsignal.SignalMetrics)
+	 */
+	@Override
+	public void setMetrics(SignalMetrics metrics) {
+		super.setMetrics(metrics);
+		for (KeySignal signal : keyed.values()) {
+			signal.setMetrics(metrics);
+		}
+	}
+	
+	/**
+	 * Applies to the catch-all listeners and the listeners of every key.
+	 * 
+	 * @see jsignal.Signal#setRunToCompletion(boolean)
+	 */
+	@Override
+	public void setRunToCompletion(boolean runToCompletion) {
+		super.setRunToCompletion(runToCompletion);
+		for (KeySignal signal : keyed.values()) {
+			signal.setRunToCompletion(runToCompletion);
+		}
+	}
+	
+	/**
+	 * Holds the listeners of one key.  It is never dispatched on its own; the keyed
+	 * signal records the dispatch once and invokes its listeners directly.
+	 */
+	private final class KeySignal extends Signal {
+		
+		KeySignal() {
+			super(KeyedSignal.this.params);
+			setMetrics(KeyedSignal.this.getMetrics());
+			setRunToCompletion(KeyedSignal.this.isRunToCompletion());
+		}
+	}
+}
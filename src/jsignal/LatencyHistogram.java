@@ -0,0 +1,98 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free, log-linear latency histogram in the style of HdrHistogram.
+ * Every power of two range is split into <code>SUB_BUCKETS</code> linear buckets,
+ * so recorded values are accurate to within 12.5%.  Values beyond 2^40 nanoseconds
+ * are clamped into the last bucket.
+ * 
+ * Each bucket is a <code>LongAdder</code>, so threads recording into the same bucket
+ * do not contend on a single counter; the counts are only summed when they are copied.
+ */
+final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+	
+	private final LongAdder[] counts = new LongAdder[BUCKETS];
+	
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = new LongAdder();
+		}
+	}
+	
+	public void record(long value) {
+		counts[indexOf(Math.max(0, value))].increment();
+	}
+	
+	public void reset() {
+		for (LongAdder count : counts) {
+			count.reset();
+		}
+	}
+	
+	/**
+	 * @return a copy of the bucket counts
+	 */
+	public long[] counts() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			copy[i] = counts[i].sum();
+		}
+		return copy;
+	}
+	
+	/**
+	 * Finds the value at a percentile of copied bucket counts.
+	 * 
+	 * @param counts bucket counts returned by <code>counts()</code>
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the highest value of the bucket holding the percentile, or 0 if nothing was recorded
+	 */
+	public static long percentile(long[] counts, double percentile) {
+		long total = 0;
+		for (long count : counts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return highestValueOf(i);
+			}
+		}
+		return highestValueOf(counts.length - 1);
+	}
+	
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if (exponent > MAX_EXPONENT) {
+			return BUCKETS - 1;
+		}
+		int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+	
+	private static long highestValueOf(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long subBucket = index % SUB_BUCKETS;
+		long width = 1L << (exponent - SUB_BUCKET_BITS);
+		return (1L << exponent) + (subBucket + 1) * width - 1;
+	}
+}
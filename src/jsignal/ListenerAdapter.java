@@ -0,0 +1,227 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Base class of the adapters generated for classes with {@link SignalHandler} methods.
+ * An adapter invokes the handler methods of one listener class directly, without
+ * reflection.
+ * 
+ * Adapters are registered in <code>META-INF/services/jsignal.ListenerAdapter</code>.
+ * The service files of a class loader are read once, into an index of adapter class
+ * names kept in a weak map so it does not pin the loader.  When a listener of a class is
+ * first added, only the adapter named after that class is loaded and instantiated, if
+ * the index lists it.  The adapter found for a class hangs off a <code>ClassValue</code>,
+ * so it does not keep the class or its class loader from being unloaded.  This class is
+ * not meant to be extended by hand.
+ */
+public abstract class ListenerAdapter {
+	static final String SERVICE_FILE = "META-INF/services/jsignal.ListenerAdapter";
+	/**
+	 * Appended to the flattened listener class name to name its adapter, as the processor does.
+	 */
+	static final String ADAPTER_SUFFIX = "_SignalAdapter";
+	
+	private static final ListenerAdapter NONE = new ListenerAdapter(Object.class, new String[0], new Class<?>[0][]) {
+		@Override
+		public void invoke(int index, Object listener, Object[] args) {
+			throw new IndexOutOfBoundsException();
+		}
+	};
+	
+	private static final Map<ClassLoader, Set<String>> INDEX = new WeakHashMap<ClassLoader, Set<String>>();
+	
+	private static final ClassValue<ListenerAdapter> REGISTRY = new ClassValue<ListenerAdapter>() {
+		@Override
+		protected ListenerAdapter computeValue(Class<?> type) {
+			ClassLoader loader = type.getClassLoader();
+			if (loader == null) {
+				return NONE;
+			}
+			String adapterName = adapterName(type);
+			if (!index(loader).contains(adapterName)) {
+				return NONE;
+			}
+			ListenerAdapter adapter;
+			try {
+				adapter = Class.forName(adapterName, true, loader).asSubclass(ListenerAdapter.class).getConstructor().newInstance();
+			} catch (ReflectiveOperationException | ClassCastException e) {
+				throw new SignalException("Could not load listener adapter "+adapterName, e);
+			}
+			// the flattened names of a nested and a top level class can clash
+			return adapter.getListenerType() == type ? adapter : NONE;
+		}
+	};
+	
+	private final Class<?> listenerType;
+	private final String[] callbacks;
+	private final Class<?>[][] params;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param listenerType the listener class whose handlers this adapter invokes
+	 * @param callbacks the names of the handler methods, by index
+	 * @param params the parameter types of the handler methods, by index
+	 */
+	protected ListenerAdapter(Class<?> listenerType, String[] callbacks, Class<?>[][] params) {
+		this.listenerType = listenerType;
+		this.callbacks = callbacks;
+		this.params = params;
+	}
+	
+	/**
+	 * @return the listener class whose handlers this adapter invokes
+	 */
+	public final Class<?> getListenerType() {
+		return listenerType;
+	}
+	
+	/**
+	 * Invokes a handler method.  The arguments have already been checked against the
+	 * signal's parameter types.
+	 * 
+	 * @param index the index of the handler method
+	 * @param listener the listener, an instance of the listener type
+	 * @param args the dispatched arguments
+	 * @throws Throwable anything thrown by the handler
+	 */
+	public abstract void invoke(int index, Object listener, Object[] args) throws Throwable;
+	
+	/**
+	 * @param callback the name of a handler method
+	 * @param types the parameter types of the handler method
+	 * @return the index of the handler method, or -1 if this adapter has no such handler
+	 */
+	final int indexOf(String callback, Class<?>[] types) {
+		for (int i = 0; i < callbacks.length; i++) {
+			if (callbacks[i].equals(callback) && Arrays.equals(params[i], types)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return a description of a handler method, in the style of <code>Method.toString()</code>
+	 */
+	final String describe(int index) {
+		StringBuilder builder = new StringBuilder(listenerType.getName()).append('.').append(callbacks[index]).append('(');
+		for (int i = 0; i < params[index].length; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(params[index][i].getTypeName());
+		}
+		return builder.append(')').toString();
+	}
+	
+	/**
+	 * @param type a listener class
+	 * @return the adapter generated for exactly that class, or null if there is none
+	 */
+	static ListenerAdapter find(Class<?> type) {
+		ListenerAdapter adapter = REGISTRY.get(type);
+		return adapter == NONE ? null : adapter;
+	}
+	
+	/**
+	 * @param type a listener class
+	 * @return the binary name the processor gives the adapter of that class
+	 */
+	static String adapterName(Class<?> type) {
+		String name = type.getName();
+		int simple = name.lastIndexOf('.') + 1;
+		return name.substring(0, simple)+name.substring(simple).replace('$', '_')+ADAPTER_SUFFIX;
+	}
+	
+	/**
+	 * @param loader a class loader
+	 * @return the names of the adapters listed in the service files visible to the loader
+	 * @throws SignalException if a service file cannot be read
+	 */
+	private static Set<String> index(ClassLoader loader) {
+		synchronized (INDEX) {
+			Set<String> names = INDEX.get(loader);
+			if (names == null) {
+				names = readIndex(loader);
+				INDEX.put(loader, names);
+			}
+			return names;
+		}
+	}
+	
+	private static Set<String> readIndex(ClassLoader loader) {
+		Set<String> names = new HashSet<String>();
+		try {
+			Enumeration<URL> files = loader.getResources(SERVICE_FILE);
+			while (files.hasMoreElements()) {
+				BufferedReader reader = new BufferedReader(new InputStreamReader(files.nextElement().openStream(), StandardCharsets.UTF_8));
+				try {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						int comment = line.indexOf('#');
+						String name = (comment < 0 ? line : line.substring(0, comment)).trim();
+						if (!name.isEmpty()) {
+							names.add(name);
+						}
+					}
+				} finally {
+					reader.close();
+				}
+			}
+		} catch (IOException e) {
+			throw new SignalException("Could not read "+SERVICE_FILE, e);
+		}
+		return names;
+	}
+	
+	/*
+	 * Unboxing helpers for the generated code.  Signals accept any wrapper that widens
+	 * to a primitive parameter, so a plain unboxing cast is not enough.
+	 */
+	
+	protected static boolean booleanArg(Object arg) {
+		return (Boolean) arg;
+	}
+	
+	protected static char charArg(Object arg) {
+		return (Character) arg;
+	}
+	
+	protected static byte byteArg(Object arg) {
+		return (Byte) arg;
+	}
+	
+	protected static short shortArg(Object arg) {
+		return ((Number) arg).shortValue();
+	}
+	
+	protected static int intArg(Object arg) {
+		return arg instanceof Character ? (Character) arg : ((Number) arg).intValue();
+	}
+	
+	protected static long longArg(Object arg) {
+		return arg instanceof Character ? (Character) arg : ((Number) arg).longValue();
+	}
+	
+	protected static float floatArg(Object arg) {
+		return arg instanceof Character ? (Character) arg : ((Number) arg).floatValue();
+	}
+	
+	protected static double doubleArg(Object arg) {
+		return arg instanceof Character ? (Character) arg : ((Number) arg).doubleValue();
+	}
+}
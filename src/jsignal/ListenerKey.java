@@ -0,0 +1,29 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Looks up a slot in a signal's listener map by its listener.  The map is keyed by
+ * the slots themselves so that it does not keep weakly referenced listeners reachable.
+ */
+final class ListenerKey {
+	private final Object listener;
+	
+	public ListenerKey(Object listener) {
+		this.listener = listener;
+	}
+	
+	@Override
+	public int hashCode() {
+		return listener.hashCode();
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (obj instanceof ISlot) {
+			Object other = ((ISlot) obj).getListener();
+			return other != null && listener.equals(other);
+		}
+		return listener.equals(obj);
+	}
+}
@@ -0,0 +1,104 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A scheduler whose clock only moves when it is advanced, running due tasks on the
+ * advancing thread.  It makes time-based signals deterministic in tests.
+ */
+public final class ManualScheduler implements IScheduler {
+	private final PriorityQueue<Task> tasks = new PriorityQueue<Task>();
+	private long now;
+	private long nextSequence;
+	
+	@Override
+	public synchronized long nanoTime() {
+		return now;
+	}
+	
+	@Override
+	public synchronized ITimeout schedule(Runnable task, long delay, TimeUnit unit) {
+		Task scheduled = new Task(task, now + Math.max(0, unit.toNanos(delay)), nextSequence++);
+		tasks.add(scheduled);
+		return scheduled;
+	}
+	
+	/**
+	 * Moves the clock forward, running each task as the clock reaches its time.  Tasks
+	 * scheduled by those tasks run too if they fall due within the advance.
+	 * 
+	 * @param time the amount of time to advance by
+	 * @param unit the unit of the time
+	 */
+	public void advance(long time, TimeUnit unit) {
+		long target;
+		synchronized (this) {
+			target = now + unit.toNanos(time);
+		}
+		while (true) {
+			Task task;
+			synchronized (this) {
+				task = tasks.peek();
+				if (task == null || task.deadline > target) {
+					now = target;
+					return;
+				}
+				tasks.poll();
+				now = Math.max(now, task.deadline);
+				if (task.done) {
+					continue;
+				}
+				task.done = true;
+			}
+			task.runnable.run();
+		}
+	}
+	
+	/**
+	 * @return the number of tasks waiting to run
+	 */
+	public synchronized int numPending() {
+		int count = 0;
+		for (Task task : tasks) {
+			if (!task.done) {
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	private final class Task implements ITimeout, Comparable<Task> {
+		final Runnable runnable;
+		final long deadline;
+		final long sequence;
+		boolean done;
+		
+		Task(Runnable runnable, long deadline, long sequence) {
+			this.runnable = runnable;
+			this.deadline = deadline;
+			this.sequence = sequence;
+		}
+		
+		@Override
+		public boolean cancel() {
+			synchronized (ManualScheduler.this) {
+				if (done) {
+					return false;
+				}
+				done = true;
+				return true;
+			}
+		}
+		
+		@Override
+		public int compareTo(Task other) {
+			if (deadline != other.deadline) {
+				return deadline < other.deadline ? -1 : 1;
+			}
+			return Long.compare(sequence, other.sequence);
+		}
+	}
+}
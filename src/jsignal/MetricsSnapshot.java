@@ -0,0 +1,122 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of the metrics of a signal.  Counters are read one at a time
+ * while the signal may still be dispatching, so they are individually accurate but
+ * not necessarily consistent with each other.
+ * 
+ * @see jsignal.SignalMetrics#snapshot()
+ */
+public final class MetricsSnapshot {
+	private final long dispatchCount;
+	private final long invocationCount;
+	private final long exceptionCount;
+	private final long totalLatencyNanos;
+	private final long maxLatencyNanos;
+	private final long[] histogram;
+	private final List<Listener> listeners;
+	
+	/**
+	 * Metrics for a single listener.
+	 */
+	public static final class Listener {
+		private final String name;
+		private final long invocationCount;
+		private final long exceptionCount;
+		private final long totalLatencyNanos;
+		private final long maxLatencyNanos;
+		
+		Listener(String name, long invocationCount, long exceptionCount, long totalLatencyNanos, long maxLatencyNanos) {
+			this.name = name;
+			this.invocationCount = invocationCount;
+			this.exceptionCount = exceptionCount;
+			this.totalLatencyNanos = totalLatencyNanos;
+			this.maxLatencyNanos = maxLatencyNanos;
+		}
+		
+		/**
+		 * @return the listener's class and callback method, as <code>class@identity.callback</code>
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		public long getInvocationCount() {
+			return invocationCount;
+		}
+		
+		public long getExceptionCount() {
+			return exceptionCount;
+		}
+		
+		public long getTotalLatencyNanos() {
+			return totalLatencyNanos;
+		}
+		
+		public long getMaxLatencyNanos() {
+			return maxLatencyNanos;
+		}
+		
+		@Override
+		public String toString() {
+			return name+" invocations="+invocationCount+" exceptions="+exceptionCount+" totalNanos="+totalLatencyNanos+" maxNanos="+maxLatencyNanos;
+		}
+	}
+	
+	MetricsSnapshot(long dispatchCount, long invocationCount, long exceptionCount, long totalLatencyNanos, long maxLatencyNanos, long[] histogram, List<Listener> listeners) {
+		this.dispatchCount = dispatchCount;
+		this.invocationCount = invocationCount;
+		this.exceptionCount = exceptionCount;
+		this.totalLatencyNanos = totalLatencyNanos;
+		this.maxLatencyNanos = maxLatencyNanos;
+		this.histogram = histogram;
+		this.listeners = Collections.unmodifiableList(listeners);
+	}
+	
+	public long getDispatchCount() {
+		return dispatchCount;
+	}
+	
+	public long getInvocationCount() {
+		return invocationCount;
+	}
+	
+	public long getExceptionCount() {
+		return exceptionCount;
+	}
+	
+	public long getTotalLatencyNanos() {
+		return totalLatencyNanos;
+	}
+	
+	public long getMaxLatencyNanos() {
+		return maxLatencyNanos;
+	}
+	
+	/**
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the listener callback latency at the percentile, in nanoseconds, accurate to within 12.5%
+	 */
+	public long getLatencyPercentileNanos(double percentile) {
+		return LatencyHistogram.percentile(histogram, percentile);
+	}
+	
+	/**
+	 * @return the metrics of each currently registered listener that has been invoked
+	 */
+	public List<Listener> getListeners() {
+		return listeners;
+	}
+	
+	@Override
+	public String toString() {
+		return "dispatches="+dispatchCount+" invocations="+invocationCount+" exceptions="+exceptionCount
+			+" totalNanos="+totalLatencyNanos+" p50Nanos="+getLatencyPercentileNanos(50)
+			+" p99Nanos="+getLatencyPercentileNanos(99)+" maxNanos="+maxLatencyNanos;
+	}
+}
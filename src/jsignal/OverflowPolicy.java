@@ -0,0 +1,19 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * What a {@link SignalPublisher} does with a dispatch when a subscriber's queue is full.
+ * 
+ * @see jsignal.Signals#publisher(ISignalOwner, int, OverflowPolicy)
+ */
+public enum OverflowPolicy {
+	/** The oldest queued dispatch is dropped to make room. */
+	DROP_OLDEST,
+	/** The new dispatch is dropped. */
+	DROP_NEWEST,
+	/** The new dispatch replaces the newest queued dispatch, so the subscriber still receives the latest state. */
+	CONFLATE_LATEST,
+	/** The dispatching thread waits until the subscriber has taken a dispatch or cancelled. */
+	BLOCK
+}
@@ -0,0 +1,174 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The ParallelSignal class is an extension of Signal that fans a dispatch out
+ * across a <code>ForkJoinPool</code>.  The listeners are split into ranges which are
+ * invoked in parallel, and <code>dispatch</code> returns only once every listener has
+ * run.  Signals with fewer listeners than the threshold are dispatched sequentially on
+ * the calling thread, where forking would cost more than it saves.
+ * 
+ * Every listener runs even if others throw.  The failures are then thrown together as
+ * a single <code>SignalException</code> which carries each of them as a suppressed
+ * exception.  The listener set is read, and <code>addOnce</code> listeners are removed,
+ * on the dispatching thread before any listener runs, so each of them fires once.
+ * 
+ * Listeners may run concurrently with each other, so they must be thread safe, and must
+ * not add or remove listeners of this signal or dispatch it while it is dispatching.
+ * 
+ * @see jsignal.Signal
+ */
+public final class ParallelSignal extends Signal {
+	private static final int DEFAULT_THRESHOLD = 16;
+	
+	private final ForkJoinPool pool;
+	private final int threshold;
+	
+	/**
+	 * Constructor
+	 * 
+	 * Dispatches on the common pool once the signal has 16 listeners or more.
+	 * 
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public ParallelSignal(Class<?>... params) {
+		this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD, params);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param pool the pool to run listeners on
+	 * @param threshold the number of listeners from which dispatches are run in parallel
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public ParallelSignal(ForkJoinPool pool, int threshold, Class<?>... params) {
+		super(params);
+		if (pool == null) {
+			throw new NullPointerException();
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Threshold must be positive: "+threshold);
+		}
+		this.pool = pool;
+		this.threshold = threshold;
+	}
+	
+	/**
+	 * @return the number of listeners from which dispatches are run in parallel
+	 */
+	public int getThreshold() {
+		return threshold;
+	}
+	
+	/**
+	 * Dispatches to all listeners, in parallel if there are at least as many as the
+	 * threshold, and waits for them to complete.
+	 * 
+	 * @throws SignalException if the wrong arguments were supplied, or one or more listeners failed
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	void dispatchNow(Object[] args) {
+		expunge();
+		if (listenerMap.isEmpty()) {
+			return;
+		}
+		checkArgs(params, args);
+		recordDispatch();
+		ISlot[] slots = new ISlot[listenerMap.size()];
+		Object[] listeners = new Object[slots.length];
+		int size = 0;
+		boolean once = false;
+		Iterator<ISlot> iterator = listenerMap.values().iterator();
+		while (iterator.hasNext()) {
+			ISlot slot = iterator.next();
+			Object listener = slot.getListener();
+			if (listener == null) {
+				iterator.remove();
+				detached(slot);
+				continue;
+			}
+			slots[size] = slot;
+			listeners[size++] = listener;
+			if (slot.getAddOnce()) {
+				iterator.remove();
+				once = true;
+			}
+		}
+		ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+		try {
+			if (size < threshold) {
+				invokeRange(slots, listeners, 0, size, args, failures);
+			} else {
+				// a few ranges per worker, so that a slow listener does not hold up a whole share
+				int leaf = Math.max(1, size / (pool.getParallelism() * 4));
+				pool.invoke(new Fanout(slots, listeners, 0, size, leaf, args, failures));
+			}
+		} finally {
+			if (once) {
+				// detached only now, so their metrics are not recorded after being forgotten
+				for (int i = 0; i < size; i++) {
+					if (slots[i].getAddOnce()) {
+						detached(slots[i]);
+					}
+				}
+			}
+		}
+		if (!failures.isEmpty()) {
+			throw AsyncSignal.aggregate(failures);
+		}
+	}
+	
+	private void invokeRange(ISlot[] slots, Object[] listeners, int from, int to, Object[] args, ConcurrentLinkedQueue<Throwable> failures) {
+		for (int i = from; i < to; i++) {
+			try {
+				invokeSlot(slots[i], listeners[i], args);
+			} catch (Throwable e) {
+				failures.add(e);
+			}
+		}
+	}
+	
+	/**
+	 * Splits a range of listeners in halves until it is no larger than a leaf, and invokes the leaves.
+	 */
+	private final class Fanout extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		private final ISlot[] slots;
+		private final Object[] listeners;
+		private final int from;
+		private final int to;
+		private final int leaf;
+		private final Object[] args;
+		private final ConcurrentLinkedQueue<Throwable> failures;
+		
+		Fanout(ISlot[] slots, Object[] listeners, int from, int to, int leaf, Object[] args, ConcurrentLinkedQueue<Throwable> failures) {
+			this.slots = slots;
+			this.listeners = listeners;
+			this.from = from;
+			this.to = to;
+			this.leaf = leaf;
+			this.args = args;
+			this.failures = failures;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= leaf) {
+				invokeRange(slots, listeners, from, to, args, failures);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Fanout(slots, listeners, from, middle, leaf, args, failures),
+				new Fanout(slots, listeners, middle, to, leaf, args, failures));
+		}
+	}
+}
@@ -2,15 +2,21 @@
 
 package jsignal;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.PriorityQueue;
 
 /**
  * The PrioritySignal class is an extension of Signal that dispatches to its
- * listeners in the order of their priority.
+ * listeners in the order of their priority.  Listeners with equal priorities
+ * are dispatched in the order they were added.
+ * 
+ * The listeners are kept in a binary heap in which every slot knows its own
+ * position, and in a sorted array which is patched in place as listeners are added
+ * and removed.  Dispatching is a linear walk of the sorted array that does not
+ * allocate, even when <code>addOnce</code> listeners fire: they are compacted out of
+ * the array in a single pass once the dispatch completes.  Listeners may add and
+ * remove listeners during a dispatch; listeners removed during a dispatch are not
+ * invoked by it, and listeners added during a dispatch cause the array to be
+ * re-sorted once it completes.
  * 
  * This class logs to the </code>"com.paulm.jsignal"</code> Logger potential problems.
  * 
@@ -19,7 +25,14 @@ import java.util.PriorityQueue;
  * @see jsignal.Signal
  */
 public final class PrioritySignal <E extends Comparable<E>> extends Signal {
-	private PriorityQueue<ISlot> listenerQueue;
+	private PrioritySlot<E>[] heap;
+	private int size;
+	private PrioritySlot<E>[] ordered;
+	private int orderedSize;
+	private boolean orderedStale;
+	private boolean orderedHasRemoved;
+	private int dispatching;
+	private long nextSequence;
 	
 	/**
 	 * Constructor
@@ -33,12 +46,14 @@ public final class PrioritySignal <E extends Comparable<E>> extends Signal {
 	/**
 	 * Constructor
 	 * 
-	 * @param initialCapacity the initial capacity of the underlying priority queue
+	 * @param initialCapacity the initial capacity of the underlying heap
 	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
 	 */
+	@SuppressWarnings("unchecked")
 	public PrioritySignal(int initialCapacity, Class<?>... params) {
 		super(params);
-		listenerQueue = new PriorityQueue<ISlot>(initialCapacity);
+		heap = (PrioritySlot<E>[]) new PrioritySlot<?>[Math.max(1, initialCapacity)];
+		ordered = (PrioritySlot<E>[]) new PrioritySlot<?>[heap.length];
 	}
 	
 	/**
@@ -55,23 +70,32 @@ public final class PrioritySignal <E extends Comparable<E>> extends Signal {
 	 * @throws SignalException if a security violation occurs while retrieving the callback method, or if no such method exists
 	 */
 	public Object add(Object listener, String callback, boolean addOnce, E priority) {	
-		Method delegate;
-		try {
-			delegate = listener.getClass().getMethod(callback, params);
-		} catch (SecurityException e) {
-			throw new SignalException("Could not access method `"+listener.getClass().getName()+"."+callback+"`", e);
-		} catch (NoSuchMethodException e) {
-			throw new SignalException("Could not find method `"+listener.getClass().getName()+"."+callback+"`", e);
-		}
-		ISlot newSlot = new PrioritySlot<E>(listener, delegate, addOnce, priority);
-		ISlot previous = listenerMap.put(listener, newSlot);
-		if (previous != null) {
-			if (!listenerQueue.remove(previous)) {
-				throw new SignalException("Invalid signal state while adding listener, previous listener was found in the map but not in the queue");
-			}
-		}
-		listenerQueue.add(newSlot);
-		return previous;
+		return add(listener, callback, addOnce, priority, getReferenceStrength());
+	}
+	
+	/**
+	 * Registers a listener to this signal with a priority, choosing how strongly
+	 * the signal refers to it.
+	 * 
+	 * @param listener the listener to register to this signal
+	 * @param callback the callback method, as a String, to invoke when this signal is dispatched
+	 * @param addOnce if true, this listener will be unregistered to this signal the next time it is dispatched
+	 * @param priority the priority of this listener
+	 * @param strength how strongly this signal refers to the listener
+	 * @return the old listener keyed to the same <code>hashCode()</code> value, or null if no such listener was replaced
+	 * @throws SignalException if a security violation occurs while retrieving the callback method, or if no such method exists
+	 */
+	public Object add(Object listener, String callback, boolean addOnce, E priority, ReferenceStrength strength) {
+		Delegate delegate = Delegate.resolve(listener, callback, params);
+		return addSlot(listener, new PrioritySlot<E>(listener, delegate, addOnce, priority, nextSequence++, strength, queueFor(strength)));
+	}
+	
+	/**
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean, jsignal.ReferenceStrength)
+	 */
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce, ReferenceStrength strength) {
+		return add(listener, callback, addOnce, null, strength);
 	}
 	
 	/**
@@ -79,7 +103,7 @@ public final class PrioritySignal <E extends Comparable<E>> extends Signal {
 	 */
 	@Override
 	public Object add(Object listener, String callback, boolean addOnce) {
-		return add(listener, callback, addOnce, null);
+		return add(listener, callback, addOnce, null, getReferenceStrength());
 	}
 	
 	/**
@@ -101,60 +125,205 @@ public final class PrioritySignal <E extends Comparable<E>> extends Signal {
 	 */
 	@Override
 	public Object add (Object listener, String callback) {
-		return add(listener, callback, false, null);
+		return add(listener, callback, false, null, getReferenceStrength());
 	}
 
 	/**
-	 * @see jsignal.Signal#remove(java.lang.Object)
+	 * @see jsignal.Signal#removeAll()
 	 */
 	@Override
-	public boolean remove(Object listener) {
-		if (super.remove(listener)) {
-			Iterator<ISlot> it = listenerQueue.iterator();
-			while (it.hasNext()) {
-				if (it.next().equals(listener)) {
-					it.remove();
-					return true;
+	public void removeAll() {
+		super.removeAll();
+		for (int i = 0; i < size; i++) {
+			heap[i].setHeapIndex(-1);
+			heap[i] = null;
+		}
+		size = 0;
+		if (dispatching > 0) {
+			orderedHasRemoved = true;
+		} else {
+			Arrays.fill(ordered, 0, orderedSize, null);
+			orderedSize = 0;
+		}
+	}
+
+	/**
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	void dispatchNow(Object[] args) {
+		expunge();
+		if (dispatching > 0 && (orderedStale || orderedHasRemoved)) {
+			// a listener changed this signal and dispatched it again, while an outer
+			// dispatch is still walking the sorted array, so sort into a new one
+			ordered = Arrays.copyOf(heap, heap.length);
+			sortOrdered();
+		}
+		int count = orderedSize;
+		if (count == 0) {
+			return;
+		}
+		checkArgs(params, args);
+		recordDispatch();
+		PrioritySlot<E>[] snapshot = ordered;
+		dispatching++;
+		try {
+			for (int i = 0; i < count; i++) {
+				PrioritySlot<E> slot = snapshot[i];
+				if (slot.getHeapIndex() < 0) {
+					// removed earlier in this dispatch, or fired once by a nested one
+					continue;
+				}
+				Object listener = slot.getListener();
+				if (listener == null || slot.getAddOnce()) {
+					if (listenerMap.remove(slot) == null) {
+						continue;
+					}
+					detached(slot);
+					if (listener == null) {
+						continue;
+					}
+				}
+				invokeSlot(slot, listener, args);
+			}
+		} finally {
+			if (--dispatching == 0) {
+				if (orderedStale) {
+					if (ordered.length < size) {
+						ordered = Arrays.copyOf(heap, heap.length);
+					} else {
+						System.arraycopy(heap, 0, ordered, 0, size);
+						Arrays.fill(ordered, size, Math.max(size, orderedSize), null);
+					}
+					sortOrdered();
+				} else if (orderedHasRemoved) {
+					compactOrdered();
 				}
 			}
-			throw new SignalException("Invalid signal state while removing listener, listener was found in the map but not in the queue");
 		}
-		return false;
+	}
+	
+	@Override
+	void attached(ISlot slot) {
+		@SuppressWarnings("unchecked")
+		PrioritySlot<E> prioritySlot = (PrioritySlot<E>) slot;
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+		siftUp(size++, prioritySlot);
+		if (dispatching > 0) {
+			orderedStale = true;
+		} else {
+			insertOrdered(prioritySlot);
+		}
+	}
+	
+	@Override
+	void detached(ISlot slot) {
+		super.detached(slot);
+		int index = heapIndexOf(slot);
+		((PrioritySlot<?>) slot).setHeapIndex(-1);
+		PrioritySlot<E> last = heap[--size];
+		heap[size] = null;
+		if (index != size) {
+			resift(index, last);
+		}
+		if (dispatching > 0) {
+			orderedHasRemoved = true;
+		} else {
+			removeOrdered(slot);
+		}
 	}
 	
 	/**
-	 * @see jsignal.Signal#removeAll()
+	 * Sorts the first <code>size</code> slots of the sorted array, which hold the heap.
 	 */
-	@Override
-	public void removeAll() {
-		super.removeAll();
-		listenerQueue.clear();
+	private void sortOrdered() {
+		Arrays.sort(ordered, 0, size);
+		orderedSize = size;
+		orderedStale = false;
+		orderedHasRemoved = false;
 	}
-
+	
+	private void insertOrdered(PrioritySlot<E> slot) {
+		if (orderedSize == ordered.length) {
+			ordered = Arrays.copyOf(ordered, orderedSize * 2);
+		}
+		int index = -Arrays.binarySearch(ordered, 0, orderedSize, slot) - 1;
+		System.arraycopy(ordered, index, ordered, index + 1, orderedSize - index);
+		ordered[index] = slot;
+		orderedSize++;
+	}
+	
+	private void removeOrdered(ISlot slot) {
+		int index = Arrays.binarySearch(ordered, 0, orderedSize, slot);
+		System.arraycopy(ordered, index + 1, ordered, index, orderedSize - index - 1);
+		ordered[--orderedSize] = null;
+	}
+	
 	/**
-	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 * Drops the slots removed during a dispatch from the sorted array, in one pass.
 	 */
-	@Override
-	public void dispatch(Object... args) {
-		PriorityQueue<ISlot> newQueue = new PriorityQueue<ISlot>(Math.max(11, listenerQueue.size()));
-		while (!listenerQueue.isEmpty()) {
-			ISlot slot = listenerQueue.remove();
-			try {
-				slot.getDelegate().invoke(slot.getListener(), args);
+	private void compactOrdered() {
+		int kept = 0;
+		for (int i = 0; i < orderedSize; i++) {
+			if (ordered[i].getHeapIndex() >= 0) {
+				ordered[kept++] = ordered[i];
 			}
-			catch (IllegalArgumentException e) {
-				throw new SignalException("Method "+slot.getDelegate()+" received an invalid argument "+Arrays.deepToString(args), e);
-			} catch (IllegalAccessException e) {
-				throw new SignalException("Could not access method "+slot.getDelegate(), e);
-			} catch (InvocationTargetException e) {
-				throw new SignalException("Could not invoke method "+slot.getDelegate(), e);
+		}
+		Arrays.fill(ordered, kept, orderedSize, null);
+		orderedSize = kept;
+		orderedHasRemoved = false;
+	}
+	
+	private int heapIndexOf(ISlot slot) {
+		return ((PrioritySlot<?>) slot).getHeapIndex();
+	}
+	
+	/**
+	 * Places a slot at a position whose previous occupant has been removed,
+	 * then restores the heap order in whichever direction is needed.
+	 */
+	private void resift(int index, PrioritySlot<E> slot) {
+		if (index > 0 && slot.compareTo(heap[(index - 1) >>> 1]) < 0) {
+			siftUp(index, slot);
+		} else {
+			siftDown(index, slot);
+		}
+	}
+	
+	private void siftUp(int index, PrioritySlot<E> slot) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			PrioritySlot<E> parentSlot = heap[parent];
+			if (slot.compareTo(parentSlot) >= 0) {
+				break;
 			}
-			if (slot.getAddOnce()) {
-				super.remove(slot);
-			} else {
-				newQueue.add(slot);
+			place(index, parentSlot);
+			index = parent;
+		}
+		place(index, slot);
+	}
+	
+	private void siftDown(int index, PrioritySlot<E> slot) {
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			int right = child + 1;
+			if (right < size && heap[right].compareTo(heap[child]) < 0) {
+				child = right;
+			}
+			if (slot.compareTo(heap[child]) <= 0) {
+				break;
 			}
+			place(index, heap[child]);
+			index = child;
 		}
-		listenerQueue = newQueue;
+		place(index, slot);
+	}
+	
+	private void place(int index, PrioritySlot<E> slot) {
+		heap[index] = slot;
+		slot.setHeapIndex(index);
 	}
 }
@@ -2,25 +2,56 @@
 
 package jsignal;
 
-import java.lang.reflect.Method;
+import java.lang.ref.ReferenceQueue;
 
 final class PrioritySlot <E extends Comparable<E>> extends Slot implements Comparable<PrioritySlot<E>> {
 	private final E priority;
+	private final long sequence;
+	private int heapIndex = -1;
 	
-	public PrioritySlot(Object listener, Method delegate, boolean addOnce, E priority) {
-		super(listener, delegate, addOnce);
+	/**
+	 * @param sequence the order in which the slot was added, which breaks ties between equal priorities
+	 */
+	public PrioritySlot(Object listener, Delegate delegate, boolean addOnce, E priority, long sequence, ReferenceStrength strength, ReferenceQueue<Object> queue) {
+		super(listener, delegate, addOnce, strength, queue);
 		this.priority = priority;
+		this.sequence = sequence;
 	}
 	
 	public E getPriority() {
 		return priority;
 	}
 	
+	/**
+	 * @return the position of this slot in its signal's heap, or -1 if it is not in a heap
+	 */
+	public int getHeapIndex() {
+		return heapIndex;
+	}
+	
+	public void setHeapIndex(int heapIndex) {
+		this.heapIndex = heapIndex;
+	}
+	
+	/**
+	 * Orders slots by their priority, with null priorities first, and then by the
+	 * order they were added in so that equal priorities dispatch in a stable order.
+	 */
 	@Override
 	public int compareTo(PrioritySlot<E> arg0) {
-		if (priority == null) {
-			return -1;
+		E other = arg0.getPriority();
+		if (priority != other) {
+			if (priority == null) {
+				return -1;
+			}
+			if (other == null) {
+				return 1;
+			}
+			int comparison = priority.compareTo(other);
+			if (comparison != 0) {
+				return comparison;
+			}
 		}
-		return priority.compareTo(arg0.getPriority());
+		return Long.compare(sequence, arg0.sequence);
 	}
 }
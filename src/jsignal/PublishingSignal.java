@@ -0,0 +1,22 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Publishes each dispatch to a shared ring after passing it on to the wrapped signal.
+ * 
+ * @see jsignal.SharedSignalRing#publish(int, ISignalOwner, Class...)
+ */
+final class PublishingSignal extends ForwardingSignal {
+	private final SharedSignalRing ring;
+	
+	PublishingSignal(SharedSignalRing ring, int signalId, ISignalOwner signal, Class<?>[] params, Codec<Object>[] codecs) {
+		super(signalId, signal, params, codecs);
+		this.ring = ring;
+	}
+	
+	@Override
+	void forward(Object[] args) {
+		ring.append(signalId, params, codecs, args);
+	}
+}
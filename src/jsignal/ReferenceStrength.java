@@ -0,0 +1,17 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * How strongly a signal refers to one of its listeners.
+ * 
+ * @see jsignal.Signal#add(Object, String, boolean, ReferenceStrength)
+ */
+public enum ReferenceStrength {
+	/** The signal keeps the listener reachable until it is removed. */
+	STRONG,
+	/** The listener is removed automatically once it is only reachable through the signal. */
+	WEAK,
+	/** Like WEAK, but the listener is only collected when the JVM is running out of memory. */
+	SOFT
+}
@@ -0,0 +1,30 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes the encoded arguments of one signal id and dispatches them to a dispatcher.
+ * 
+ * @see jsignal.JournalReplayer
+ * @see jsignal.SharedSignalSubscriber
+ */
+final class ReplayTarget {
+	private final IDispatcher dispatcher;
+	private final Class<?>[] params;
+	private final Codec<Object>[] codecs;
+	
+	ReplayTarget(IDispatcher dispatcher, Class<?>[] params, Codec<Object>[] codecs) {
+		this.dispatcher = dispatcher;
+		this.params = params.clone();
+		this.codecs = codecs;
+	}
+	
+	/**
+	 * @param buffer the buffer positioned at the encoded arguments
+	 */
+	void dispatch(ByteBuffer buffer) {
+		dispatcher.dispatch(Codecs.decode(params, codecs, buffer));
+	}
+}
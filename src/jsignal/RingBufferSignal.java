@@ -0,0 +1,358 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The RingBufferSignal class hands dispatches off from producer threads to
+ * listener threads through a preallocated ring buffer.
+ * 
+ * Any number of threads may dispatch concurrently.  A dispatch claims the next
+ * sequence, stores its arguments in the matching ring entry and publishes it,
+ * without locking and without running any listener code.  Each listener consumes
+ * the ring on its own thread, tracking the sequence it has reached; dispatches
+ * block only when the slowest listener is a whole ring behind, which bounds memory.
+ * 
+ * Listeners only receive dispatches published after they were added.  Exceptions
+ * thrown by listeners are logged to the <code>"com.paulm.jsignal"</code> Logger and
+ * do not stop the listener's thread.
+ * 
+ * @see jsignal.Signal
+ */
+public final class RingBufferSignal implements ISignalOwner {
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	private static final Consumer[] NO_CONSUMERS = new Consumer[0];
+	
+	/**
+	 * Strategies for threads waiting on the ring buffer, from lowest latency to lowest CPU usage.
+	 */
+	public enum WaitStrategy {
+		/** Spins continuously, burning a core per waiting thread. */
+		BUSY_SPIN {
+			@Override
+			int idle(int counter) {
+				Thread.onSpinWait();
+				return counter;
+			}
+		},
+		/** Spins briefly, then yields the processor between checks. */
+		YIELD {
+			@Override
+			int idle(int counter) {
+				if (counter < SPIN_TRIES) {
+					Thread.onSpinWait();
+					return counter + 1;
+				}
+				Thread.yield();
+				return counter;
+			}
+		},
+		/** Spins and yields briefly, then parks for short periods between checks. */
+		PARK {
+			@Override
+			int idle(int counter) {
+				if (counter < SPIN_TRIES) {
+					Thread.onSpinWait();
+				} else if (counter < SPIN_TRIES * 2) {
+					Thread.yield();
+				} else {
+					LockSupport.parkNanos(PARK_NANOS);
+					return counter;
+				}
+				return counter + 1;
+			}
+		};
+		
+		private static final int SPIN_TRIES = 100;
+		private static final long PARK_NANOS = 50000L;
+		
+		/**
+		 * Waits once.
+		 * 
+		 * @param counter the number of times the caller has waited so far, starting at 0
+		 * @return the counter to pass to the next call
+		 */
+		abstract int idle(int counter);
+	}
+	
+	private final Class<?>[] params;
+	private final Object[][] entries;
+	private final AtomicIntegerArray published;
+	private final int mask;
+	private final int shift;
+	private final WaitStrategy waitStrategy;
+	private final ThreadFactory threadFactory;
+	private final AtomicLong nextSequence = new AtomicLong();
+	private final AtomicReference<Consumer[]> consumers = new AtomicReference<Consumer[]>(NO_CONSUMERS);
+	
+	/**
+	 * Constructor, using daemon listener threads.
+	 * 
+	 * @param capacity the number of ring entries, must be a power of two
+	 * @param waitStrategy how producers and listeners wait on each other
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public RingBufferSignal(int capacity, WaitStrategy waitStrategy, Class<?>... params) {
+		this(capacity, waitStrategy, new DaemonThreadFactory(), params);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity the number of ring entries, must be a power of two
+	 * @param waitStrategy how producers and listeners wait on each other
+	 * @param threadFactory the factory for listener threads
+	 * @param params the parameter types (as a Class instance) that this signal will dispatch as event data
+	 */
+	public RingBufferSignal(int capacity, WaitStrategy waitStrategy, ThreadFactory threadFactory, Class<?>... params) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: "+capacity);
+		}
+		if (waitStrategy == null || threadFactory == null) {
+			throw new NullPointerException();
+		}
+		this.params = params;
+		this.entries = new Object[capacity][];
+		this.published = new AtomicIntegerArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			published.set(i, -1);
+		}
+		this.mask = capacity - 1;
+		this.shift = Integer.numberOfTrailingZeros(capacity);
+		this.waitStrategy = waitStrategy;
+		this.threadFactory = threadFactory;
+	}
+	
+	/**
+	 * Registers a listener and starts its consumer thread.  If an equal listener is
+	 * already registered its thread is stopped and it is replaced.
+	 * 
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce) {
+		Delegate delegate = Delegate.resolve(listener, callback, params);
+		Consumer consumer = new Consumer(new Slot(listener, delegate, addOnce), nextSequence.get() - 1);
+		Consumer previous;
+		while (true) {
+			Consumer[] current = consumers.get();
+			int index = indexOf(current, listener);
+			Consumer[] next;
+			if (index < 0) {
+				next = Arrays.copyOf(current, current.length + 1);
+				next[current.length] = consumer;
+				previous = null;
+			} else {
+				next = current.clone();
+				next[index] = consumer;
+				previous = current[index];
+			}
+			if (consumers.compareAndSet(current, next)) {
+				break;
+			}
+		}
+		if (previous != null) {
+			previous.stop();
+		}
+		threadFactory.newThread(consumer).start();
+		return previous == null ? null : previous.slot.getListener();
+	}
+	
+	/**
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String)
+	 */
+	public Object add(Object listener, String callback) {
+		return add(listener, callback, false);
+	}
+	
+	/**
+	 * Unregisters a listener and stops its consumer thread.  Dispatches it has not yet
+	 * consumed are not delivered to it.
+	 * 
+	 * @see jsignal.Signal#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object listener) {
+		while (true) {
+			Consumer[] current = consumers.get();
+			int index = indexOf(current, listener);
+			if (index < 0) {
+				return false;
+			}
+			if (removeConsumer(current, index)) {
+				return true;
+			}
+		}
+	}
+	
+	/**
+	 * @see jsignal.Signal#removeAll()
+	 */
+	@Override
+	public void removeAll() {
+		for (Consumer consumer : consumers.getAndSet(NO_CONSUMERS)) {
+			consumer.stop();
+		}
+	}
+	
+	/**
+	 * Publishes the arguments into the ring buffer for the listener threads to consume.
+	 * Blocks, according to the wait strategy, while the ring is full.  The argument array
+	 * is kept in the ring, so callers must not reuse it.
+	 * 
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	public void dispatch(Object... args) {
+		if (consumers.get().length == 0) {
+			return;
+		}
+		Signal.checkArgs(params, args);
+		long sequence = nextSequence.getAndIncrement();
+		long wrapPoint = sequence - entries.length;
+		int counter = 0;
+		while (wrapPoint > minimumSequence()) {
+			counter = waitStrategy.idle(counter);
+		}
+		int index = (int) sequence & mask;
+		entries[index] = args;
+		published.lazySet(index, (int) (sequence >>> shift));
+	}
+	
+	/**
+	 * @see jsignal.Signal#containsListener(java.lang.Object)
+	 */
+	@Override
+	public boolean containsListener(Object listener) {
+		return indexOf(consumers.get(), listener) >= 0;
+	}
+	
+	/**
+	 * @see jsignal.Signal#numListeners()
+	 */
+	@Override
+	public int numListeners() {
+		return consumers.get().length;
+	}
+	
+	private long minimumSequence() {
+		long minimum = Long.MAX_VALUE;
+		for (Consumer consumer : consumers.get()) {
+			minimum = Math.min(minimum, consumer.sequence.get());
+		}
+		return minimum;
+	}
+	
+	private boolean isPublished(long sequence) {
+		return published.get((int) sequence & mask) == (int) (sequence >>> shift);
+	}
+	
+	private boolean removeConsumer(Consumer[] current, int index) {
+		Consumer[] next;
+		if (current.length == 1) {
+			next = NO_CONSUMERS;
+		} else {
+			next = new Consumer[current.length - 1];
+			System.arraycopy(current, 0, next, 0, index);
+			System.arraycopy(current, index + 1, next, index, next.length - index);
+		}
+		if (consumers.compareAndSet(current, next)) {
+			current[index].stop();
+			return true;
+		}
+		return false;
+	}
+	
+	private static int indexOf(Consumer[] consumers, Object listener) {
+		if (listener == null) {
+			return -1;
+		}
+		for (int i = 0; i < consumers.length; i++) {
+			if (consumers[i].slot.equals(listener)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Consumes the ring buffer on behalf of one listener.
+	 */
+	private final class Consumer implements Runnable {
+		private final ISlot slot;
+		private final AtomicLong sequence;
+		private volatile boolean running = true;
+		
+		Consumer(ISlot slot, long sequence) {
+			this.slot = slot;
+			this.sequence = new AtomicLong(sequence);
+		}
+		
+		void stop() {
+			running = false;
+		}
+		
+		@Override
+		public void run() {
+			try {
+				long next = sequence.get() + 1;
+				int counter = 0;
+				while (running) {
+					if (!isPublished(next)) {
+						counter = waitStrategy.idle(counter);
+						continue;
+					}
+					counter = 0;
+					try {
+						Signal.invoke(slot, slot.getListener(), entries[(int) next & mask]);
+					} catch (Throwable e) {
+						LOGGER.log(Level.SEVERE, "Listener failed at sequence "+next, e);
+					}
+					sequence.lazySet(next++);
+					if (slot.getAddOnce()) {
+						return;
+					}
+				}
+			} finally {
+				// a consumer whose thread ends must not hold producers back
+				detach();
+			}
+		}
+		
+		private void detach() {
+			while (true) {
+				Consumer[] current = consumers.get();
+				int index = -1;
+				for (int i = 0; i < current.length; i++) {
+					if (current[i] == this) {
+						index = i;
+						break;
+					}
+				}
+				if (index < 0 || removeConsumer(current, index)) {
+					return;
+				}
+			}
+		}
+	}
+	
+	private static final class DaemonThreadFactory implements ThreadFactory {
+		private static final AtomicInteger COUNT = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "jsignal-ring-consumer-"+COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the latest arguments once per period, skipping periods without any
+ * dispatch.  No task is scheduled while the signal is idle.
+ * 
+ * @see jsignal.Signals#sample(ISignalOwner, long, TimeUnit, IScheduler)
+ */
+final class SampledSignal extends TimedSignal {
+	private final Runnable tick = new Runnable() {
+		@Override
+		public void run() {
+			tick();
+		}
+	};
+	private Object[] pending;
+	private boolean hasPending;
+	private ITimeout timeout;
+	
+	SampledSignal(ISignalOwner signal, IScheduler scheduler, long period, TimeUnit unit) {
+		super(signal, scheduler, period, unit);
+	}
+	
+	@Override
+	public synchronized void dispatch(Object... args) {
+		pending = args;
+		hasPending = true;
+		if (timeout == null) {
+			timeout = schedule(tick, windowNanos);
+		}
+	}
+	
+	private synchronized void tick() {
+		timeout = null;
+		if (!hasPending) {
+			return;
+		}
+		Object[] args = pending;
+		pending = null;
+		hasPending = false;
+		timeout = schedule(tick, windowNanos);
+		emit(args);
+	}
+}
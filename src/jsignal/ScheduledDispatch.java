@@ -0,0 +1,91 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A dispatch scheduled to run once after a delay, or repeatedly at a fixed rate.
+ * Repeated dispatches are timed from the first one rather than from each other,
+ * so a slow dispatch does not make the following ones drift.
+ * 
+ * @see jsignal.Signals#dispatchAfter(IScheduler, IDispatcher, long, TimeUnit, Object...)
+ * @see jsignal.Signals#dispatchAtFixedRate(IScheduler, IDispatcher, long, long, TimeUnit, Object...)
+ */
+final class ScheduledDispatch implements Runnable, ITimeout {
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	
+	private final IScheduler scheduler;
+	private final IDispatcher signal;
+	private final Object[] args;
+	private final long periodNanos;
+	private long deadline;
+	private ITimeout timeout;
+	private boolean cancelled;
+	
+	/**
+	 * @param periodNanos the period, or zero to dispatch once
+	 */
+	private ScheduledDispatch(IScheduler scheduler, IDispatcher signal, Object[] args, long periodNanos) {
+		if (scheduler == null || signal == null) {
+			throw new NullPointerException();
+		}
+		this.scheduler = scheduler;
+		this.signal = signal;
+		this.args = args;
+		this.periodNanos = periodNanos;
+	}
+	
+	static ITimeout after(IScheduler scheduler, IDispatcher signal, long delay, TimeUnit unit, Object[] args) {
+		ScheduledDispatch dispatch = new ScheduledDispatch(scheduler, signal, args, 0);
+		dispatch.start(unit.toNanos(delay));
+		return dispatch;
+	}
+	
+	static ITimeout atFixedRate(IScheduler scheduler, IDispatcher signal, long initialDelay, long period, TimeUnit unit, Object[] args) {
+		if (period <= 0) {
+			throw new IllegalArgumentException("Period must be positive");
+		}
+		ScheduledDispatch dispatch = new ScheduledDispatch(scheduler, signal, args, unit.toNanos(period));
+		dispatch.start(unit.toNanos(initialDelay));
+		return dispatch;
+	}
+	
+	private synchronized void start(long delayNanos) {
+		deadline = scheduler.nanoTime() + Math.max(0, delayNanos);
+		timeout = scheduler.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	@Override
+	public void run() {
+		synchronized (this) {
+			if (cancelled) {
+				return;
+			}
+			if (periodNanos == 0) {
+				timeout = null;
+			} else {
+				deadline += periodNanos;
+				timeout = scheduler.schedule(this, deadline - scheduler.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+		}
+		try {
+			signal.dispatch(args);
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Scheduled dispatch failed", e);
+		}
+	}
+	
+	@Override
+	public synchronized boolean cancel() {
+		if (cancelled || timeout == null) {
+			return false;
+		}
+		cancelled = true;
+		timeout.cancel();
+		timeout = null;
+		return true;
+	}
+}
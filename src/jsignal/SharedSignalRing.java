@@ -0,0 +1,178 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The SharedSignalRing class publishes dispatches into a ring buffer in a memory-mapped
+ * file, where {@link SharedSignalSubscriber}s in other processes on the same host read
+ * them and dispatch them again locally.  No sockets, broker or system calls are involved
+ * in passing a dispatch, so the latency between processes is in the order of microseconds.
+ * 
+ * Signals are shared by wrapping them with <code>publish</code>.  Each dispatch through
+ * the wrapper is checked against the signal's parameter types, written to the ring with
+ * the signal's id, and then dispatched to the wrapped signal.  Arguments are written by
+ * the same {@link Codec}s as a {@link SignalJournal}.  Publishing is synchronized, so
+ * wrapped signals may be dispatched from any thread, but only one process may publish to
+ * a file at a time.
+ * 
+ * The ring never blocks the publisher.  A subscriber that falls a whole ring behind skips
+ * ahead to the latest dispatch and loses the ones in between, so the capacity should
+ * cover the longest pause expected of a subscriber.
+ * 
+ * @see jsignal.SharedSignalSubscriber
+ */
+public final class SharedSignalRing implements Closeable {
+	static final int MAGIC = 0x4A535231;
+	static final int CAPACITY_OFFSET = 4;
+	// the tail fields are on cache lines of their own, apart from the read-only fields
+	static final int TAIL_INTENT_OFFSET = 64;
+	static final int TAIL_OFFSET = 128;
+	static final int DATA_OFFSET = 192;
+	static final int RECORD_HEADER_SIZE = 4 + 4;
+	static final int ALIGNMENT = 8;
+	static final int MIN_CAPACITY = 1024;
+	
+	static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+	static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+	
+	private final MappedByteBuffer ring;
+	private final int capacity;
+	private final ByteBuffer scratch;
+	private final Codecs codecs = new Codecs();
+	private long tail;
+	private boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * Opens the ring in a file, creating the file if it does not exist.  Publishing to an
+	 * existing ring carries on after its last dispatch.
+	 * 
+	 * @param file the file holding the ring
+	 * @param capacity the size of the ring in bytes, a power of two of at least {@value #MIN_CAPACITY}
+	 * @throws IOException if the file cannot be created or mapped
+	 * @throws SignalException if the file holds a ring of a different capacity, or is not a ring
+	 */
+	public SharedSignalRing(Path file, int capacity) throws IOException {
+		if (capacity < MIN_CAPACITY || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two of at least "+MIN_CAPACITY+": "+capacity);
+		}
+		this.capacity = capacity;
+		this.ring = map(file, FileChannel.MapMode.READ_WRITE, DATA_OFFSET + capacity);
+		int magic = (int) INTS.getAcquire(ring, 0);
+		if (magic == 0) {
+			ring.putInt(CAPACITY_OFFSET, capacity);
+			INTS.setRelease(ring, 0, MAGIC);
+		} else if (magic != MAGIC) {
+			throw new SignalException("Not a signal ring: "+file);
+		} else if (ring.getInt(CAPACITY_OFFSET) != capacity) {
+			throw new SignalException("Ring "+file+" has a capacity of "+ring.getInt(CAPACITY_OFFSET)+" bytes, not "+capacity);
+		}
+		this.tail = (long) LONGS.getAcquire(ring, TAIL_OFFSET);
+		this.scratch = ByteBuffer.allocate(maxRecordSize(capacity));
+	}
+	
+	/**
+	 * Sets the codec for an argument type, replacing any built-in codec.
+	 * Only signals published afterwards use it.
+	 * 
+	 * @param type the argument type
+	 * @param codec the codec
+	 */
+	public synchronized <T> void setCodec(Class<T> type, Codec<? super T> codec) {
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * Wraps a signal so every dispatch through the wrapper is shared.
+	 * 
+	 * @param signalId the id the dispatches are published with, used to route them in subscribers
+	 * @param signal the signal to wrap
+	 * @param params the parameter types of the signal
+	 * @return a signal which publishes and then dispatches to the wrapped signal
+	 * @throws SignalException if a parameter type has no codec
+	 */
+	public synchronized ISignalOwner publish(int signalId, ISignalOwner signal, Class<?>... params) {
+		return new PublishingSignal(this, signalId, signal, params, codecs.forParams(params));
+	}
+	
+	/**
+	 * Writes a dispatch to the ring.  The tail intent is raised before the ring is
+	 * written and the tail after, so a subscriber can tell whether the record it has
+	 * just copied was being overwritten.
+	 * 
+	 * @throws SignalException if the encoded dispatch is larger than a quarter of the ring
+	 */
+	synchronized void append(int signalId, Class<?>[] params, Codec<Object>[] argCodecs, Object[] args) {
+		if (closed) {
+			throw new SignalException("Ring is closed");
+		}
+		scratch.clear();
+		try {
+			scratch.putInt(0);
+			scratch.putInt(signalId);
+			Codecs.encode(params, argCodecs, args, scratch);
+		} catch (BufferOverflowException e) {
+			throw new SignalException("Dispatch does not fit in a ring of "+capacity+" bytes", e);
+		}
+		int length = scratch.position();
+		int aligned = align(length);
+		int offset = (int) (tail & (capacity - 1));
+		int padding = capacity - offset < aligned ? capacity - offset : 0;
+		LONGS.setOpaque(ring, TAIL_INTENT_OFFSET, tail + padding + aligned);
+		VarHandle.storeStoreFence();
+		if (padding > 0) {
+			ring.putInt(DATA_OFFSET + offset, -padding);
+			offset = 0;
+		}
+		scratch.putInt(0, length);
+		scratch.flip();
+		ByteBuffer target = ring.duplicate();
+		target.position(DATA_OFFSET + offset);
+		target.put(scratch);
+		tail += padding + aligned;
+		LONGS.setRelease(ring, TAIL_OFFSET, tail);
+	}
+	
+	/**
+	 * Stops publishing.  Dispatches through published signals fail afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+	}
+	
+	static MappedByteBuffer map(Path file, FileChannel.MapMode mode, long size) throws IOException {
+		FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+			? FileChannel.open(file, StandardOpenOption.READ)
+			: FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			return channel.map(mode, 0, size < 0 ? channel.size() : size);
+		} finally {
+			channel.close();
+		}
+	}
+	
+	/**
+	 * @return the largest record, including its header, that a ring of the capacity accepts
+	 */
+	static int maxRecordSize(int capacity) {
+		return capacity / 4;
+	}
+	
+	static int align(int length) {
+		return (length + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+}
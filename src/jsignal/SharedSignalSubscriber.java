@@ -0,0 +1,169 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The SharedSignalSubscriber class reads the dispatches published to a
+ * {@link SharedSignalRing}, usually by another process, and dispatches them again locally.
+ * 
+ * Each signal id to receive is registered with the dispatcher to dispatch it to and the
+ * parameter types it is published with; dispatches of other signal ids are skipped.
+ * Custom codecs must be set with the same types as when publishing.  A subscriber starts
+ * at the latest dispatch, it does not see dispatches published before it was opened.
+ * 
+ * Dispatches are read either by calling <code>poll</code> from an existing event loop,
+ * or by running the subscriber on a thread of its own, which busy-spins for a while when
+ * the ring is empty before parking for {@value #PARK_NANOS} nanoseconds at a time.
+ * Either way, a subscriber must only be read from one thread.
+ * 
+ * @see jsignal.SharedSignalRing
+ */
+public final class SharedSignalSubscriber implements Runnable, Closeable {
+	static final int SPIN_LIMIT = 10000;
+	static final long PARK_NANOS = 50000;
+	
+	private final MappedByteBuffer ring;
+	private final int capacity;
+	private final ByteBuffer scratch;
+	private final Codecs codecs = new Codecs();
+	private final Map<Integer, ReplayTarget> targets = new HashMap<Integer, ReplayTarget>();
+	private long head;
+	private long numLapped;
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param file the file holding the ring, which must have been created by a <code>SharedSignalRing</code>
+	 * @throws IOException if the file cannot be mapped
+	 * @throws SignalException if the file is not a ring
+	 */
+	public SharedSignalSubscriber(Path file) throws IOException {
+		MappedByteBuffer header = SharedSignalRing.map(file, FileChannel.MapMode.READ_ONLY, -1);
+		if (header.capacity() < SharedSignalRing.DATA_OFFSET || (int) SharedSignalRing.INTS.getAcquire(header, 0) != SharedSignalRing.MAGIC) {
+			throw new SignalException("Not a signal ring: "+file);
+		}
+		this.capacity = header.getInt(SharedSignalRing.CAPACITY_OFFSET);
+		if (capacity < SharedSignalRing.MIN_CAPACITY || Integer.bitCount(capacity) != 1) {
+			throw new SignalException("Ring "+file+" has an invalid capacity: "+capacity);
+		}
+		this.ring = SharedSignalRing.map(file, FileChannel.MapMode.READ_ONLY, SharedSignalRing.DATA_OFFSET + capacity);
+		this.scratch = ByteBuffer.allocate(SharedSignalRing.maxRecordSize(capacity));
+		this.head = (long) SharedSignalRing.LONGS.getAcquire(ring, SharedSignalRing.TAIL_OFFSET);
+	}
+	
+	/**
+	 * Sets the codec for an argument type, replacing any built-in codec.
+	 * Only signals registered afterwards use it.
+	 * 
+	 * @param type the argument type
+	 * @param codec the codec
+	 */
+	public <T> void setCodec(Class<T> type, Codec<? super T> codec) {
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * Dispatches the dispatches of a signal id to a dispatcher.
+	 * 
+	 * @param signalId the id the signal is published with
+	 * @param target the dispatcher to dispatch to
+	 * @param params the parameter types the signal is published with
+	 * @throws SignalException if a parameter type has no codec
+	 */
+	public void register(int signalId, IDispatcher target, Class<?>... params) {
+		targets.put(signalId, new ReplayTarget(target, params, codecs.forParams(params)));
+	}
+	
+	/**
+	 * Dispatches every dispatch published since the last poll, without waiting for more.
+	 * 
+	 * @return the number of dispatches dispatched
+	 * @throws SignalException if a slot callback method could not be invoked
+	 */
+	public int poll() {
+		int count = 0;
+		long tail = (long) SharedSignalRing.LONGS.getAcquire(ring, SharedSignalRing.TAIL_OFFSET);
+		while (head < tail) {
+			int offset = (int) (head & (capacity - 1));
+			int length = ring.getInt(SharedSignalRing.DATA_OFFSET + offset);
+			int next;
+			boolean valid;
+			if (length < 0) {
+				next = -length;
+				valid = next <= capacity - offset;
+			} else {
+				next = SharedSignalRing.align(length);
+				valid = length >= SharedSignalRing.RECORD_HEADER_SIZE && length <= scratch.capacity() && next <= capacity - offset;
+				if (valid) {
+					scratch.clear();
+					ByteBuffer source = ring.duplicate();
+					source.position(SharedSignalRing.DATA_OFFSET + offset + 4).limit(SharedSignalRing.DATA_OFFSET + offset + length);
+					scratch.put(source);
+					scratch.flip();
+				}
+			}
+			// the copy must be complete before checking whether it was being overwritten
+			VarHandle.loadLoadFence();
+			long tailIntent = (long) SharedSignalRing.LONGS.getAcquire(ring, SharedSignalRing.TAIL_INTENT_OFFSET);
+			if (!valid || tailIntent - capacity > head) {
+				numLapped++;
+				head = (long) SharedSignalRing.LONGS.getAcquire(ring, SharedSignalRing.TAIL_OFFSET);
+				return count;
+			}
+			head += next;
+			if (length > 0) {
+				ReplayTarget target = targets.get(scratch.getInt());
+				if (target != null) {
+					target.dispatch(scratch);
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Polls until the subscriber is closed.
+	 */
+	@Override
+	public void run() {
+		int idle = 0;
+		while (!closed) {
+			if (poll() > 0) {
+				idle = 0;
+			} else if (idle < SPIN_LIMIT) {
+				idle++;
+				Thread.onSpinWait();
+			} else {
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of times this subscriber fell a whole ring behind and skipped ahead, losing dispatches
+	 */
+	public long numLapped() {
+		return numLapped;
+	}
+	
+	/**
+	 * Stops <code>run</code> after its current poll.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+	}
+}
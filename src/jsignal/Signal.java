@@ -2,11 +2,13 @@
 
 package jsignal;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
@@ -16,13 +18,26 @@ import java.util.logging.Logger;
  * directly to the object, no constant event type
  * identifiers are required.
  * 
+ * Listeners may be referenced strongly, weakly or softly.  Weakly and softly
+ * referenced listeners that are garbage collected are expunged from the signal
+ * by the next operation on it, at a cost proportional to the number collected.
+ * 
  * This class logs to the </code>"com.paulm.jsignal"</code> Logger potential problems.
  * 
  * This is a port of Robert Penner's Signals for ActionScript 3.0
  */
 public class Signal implements ISignalOwner {
 	protected final Class<?>[] params;
+	/**
+	 * The registered slots, each keyed by itself.  Look slots up by listener with a <code>ListenerKey</code>.
+	 */
 	protected final Map<Object, ISlot> listenerMap = new HashMap<Object, ISlot>();
+	private ReferenceStrength referenceStrength = ReferenceStrength.STRONG;
+	private ReferenceQueue<Object> referenceQueue;
+	private SignalMetrics metrics;
+	private boolean runToCompletion;
+	private int iterating;
+	private List<Runnable> deferred;
 	
 	/**
 	 * Constructor
@@ -51,16 +66,23 @@ public class Signal implements ISignalOwner {
 	 */
 	@Override
 	public Object add (Object listener, String callback, boolean addOnce) {
-		Method delegate;
-		try {
-			delegate = listener.getClass().getMethod(callback, params);
-		} catch (SecurityException e) {
-			throw new SignalException("Could not access method `"+listener.getClass().getName()+"."+callback+"`", e);
-		} catch (NoSuchMethodException e) {
-			throw new SignalException("Could not find method `"+listener.getClass().getName()+"."+callback+"`", e);
-		}
-		ISlot previous = listenerMap.put(listener, new Slot(listener, delegate, addOnce));
-		return previous == null ? null : previous.getListener();
+		return add(listener, callback, addOnce, referenceStrength);
+	}
+	
+	/**
+	 * Adds a listener object to this signal, choosing how strongly the signal refers to it.
+	 * 
+	 * @param listener the listener object to add
+	 * @param callback the callback method, as a String, to invoke when this signal is dispatched
+	 * @param addOnce if true, once this signal has dispatched the listener is removed from the listener map
+	 * @param strength how strongly this signal refers to the listener
+	 * @return the old listener keyed to the same <code>hashCode()</code> value, or null if no such listener was replaced
+	 * @throws SignalException if a security violation occurs while retrieving the callback method, or if no such method exists
+	 * @see jsignal.Signal#add(Object, String, boolean)
+	 */
+	public Object add(Object listener, String callback, boolean addOnce, ReferenceStrength strength) {
+		Delegate delegate = Delegate.resolve(listener, callback, params);
+		return addSlot(listener, new Slot(listener, delegate, addOnce, strength, queueFor(strength)));
 	}
 	
 	/**
@@ -92,15 +114,45 @@ public class Signal implements ISignalOwner {
 	 * @return if the listener was successfully removed
 	 */
 	@Override
-	public boolean remove(Object listener) {
-		return listenerMap.remove(listener) != null;
+	public boolean remove(final Object listener) {
+		expunge();
+		if (listener == null) {
+			return false;
+		}
+		if (isDeferring()) {
+			defer(new Runnable() {
+				@Override
+				public void run() {
+					remove(listener);
+				}
+			});
+			return listenerMap.containsKey(new ListenerKey(listener));
+		}
+		ISlot slot = listenerMap.remove(new ListenerKey(listener));
+		if (slot == null) {
+			return false;
+		}
+		detached(slot);
+		return true;
 	}
 	
 	/* (non-Javadoc)
 	 * @see com.paulm.jsignal.ISignalOwner#removeAll()
 	 */
 	public void removeAll () {
+		if (isDeferring()) {
+			defer(new Runnable() {
+				@Override
+				public void run() {
+					removeAll();
+				}
+			});
+			return;
+		}
 		listenerMap.clear();
+		if (metrics != null) {
+			metrics.removedAll();
+		}
 	}
 	
 	/**
@@ -113,24 +165,344 @@ public class Signal implements ISignalOwner {
 	 */
 	@Override
 	public void dispatch(Object... args) {
-		Iterator<ISlot> iterator = listenerMap.values().iterator();
-		while (iterator.hasNext()) {
-			ISlot slot = iterator.next();
-			try {
-				slot.getDelegate().invoke(slot.getListener(), args);
-			} catch (IllegalArgumentException e) {
-				throw new SignalException("Method "+slot.getDelegate()+" received an invalid argument "+Arrays.deepToString(args), e);
-			} catch (IllegalAccessException e) {
-				throw new SignalException("Could not access method "+slot.getDelegate(), e);
-			} catch (InvocationTargetException e) {
-				throw new SignalException("Could not invoke method "+slot.getDelegate(), e);
+		if (runToCompletion) {
+			DispatchQueue.run(this, args);
+		} else {
+			dispatchNow(args);
+		}
+	}
+	
+	/**
+	 * Dispatches immediately, on the calling stack.  Subclasses override this rather
+	 * than <code>dispatch</code> so they take part in run-to-completion dispatching.
+	 * 
+	 * @param args the argument list to dispatch to listeners
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	void dispatchNow(Object[] args) {
+		expunge();
+		if (listenerMap.isEmpty()) {
+			return;
+		}
+		checkArgs(params, args);
+		recordDispatch();
+		invokeAll(args);
+	}
+	
+	/**
+	 * Invokes every registered listener with arguments that have already been checked,
+	 * removing <code>addOnce</code> and collected listeners as it goes.
+	 * 
+	 * @param args the dispatched arguments
+	 */
+	final void invokeAll(Object[] args) {
+		iterating++;
+		try {
+			Iterator<ISlot> iterator = listenerMap.values().iterator();
+			while (iterator.hasNext()) {
+				ISlot slot = iterator.next();
+				Object listener = slot.getListener();
+				if (listener == null) {
+					iterator.remove();
+					detached(slot);
+					continue;
+				}
+				invokeSlot(slot, listener, args);
+				if (slot.getAddOnce()) {
+					iterator.remove();
+					detached(slot);
+				}
+			}
+		} finally {
+			if (--iterating == 0) {
+				applyDeferred();
+			}
+		}
+	}
+	
+	/**
+	 * Sets how strongly listeners added without an explicit reference strength are
+	 * referenced.  This also applies to listeners added through a wrapper created by
+	 * <code>Signals</code>.  The default is <code>ReferenceStrength.STRONG</code>.
+	 * 
+	 * @param strength the default reference strength
+	 */
+	public void setReferenceStrength(ReferenceStrength strength) {
+		if (strength == null) {
+			throw new NullPointerException();
+		}
+		referenceStrength = strength;
+	}
+	
+	/**
+	 * @return the reference strength of listeners added without an explicit one
+	 */
+	public ReferenceStrength getReferenceStrength() {
+		return referenceStrength;
+	}
+	
+	/**
+	 * Attaches metrics to this signal, which then records its dispatches and listener
+	 * callbacks into them.  Metrics are disabled by default.
+	 * 
+	 * @param metrics the metrics to record into, or null to stop recording
+	 */
+	public void setMetrics(SignalMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * @return the metrics attached to this signal, or null if metrics are disabled
+	 */
+	public SignalMetrics getMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Enables or disables run-to-completion dispatching.  When enabled, a dispatch made
+	 * by a listener while a run-to-completion dispatch is running on the same thread, on
+	 * this or any other run-to-completion signal, is queued and run by the outermost
+	 * dispatch once the current one completes, instead of recursing.  Listeners added or
+	 * removed during a dispatch take effect once it completes; <code>add</code> and
+	 * <code>remove</code> report the listeners as they were when it started.
+	 * 
+	 * If a listener throws, the queued dispatches are discarded.  Signal, PrioritySignal
+	 * and KeyedSignal support this mode.  The default is disabled.
+	 * 
+	 * @param runToCompletion if dispatches should run to completion
+	 */
+	public void setRunToCompletion(boolean runToCompletion) {
+		this.runToCompletion = runToCompletion;
+	}
+	
+	/**
+	 * @return if dispatches run to completion
+	 * @see jsignal.Signal#setRunToCompletion(boolean)
+	 */
+	public boolean isRunToCompletion() {
+		return runToCompletion;
+	}
+	
+	/**
+	 * Records a dispatch if metrics are enabled.  Subclasses call this once per dispatch.
+	 */
+	final void recordDispatch() {
+		if (metrics != null) {
+			metrics.recordDispatch();
+		}
+	}
+	
+	/**
+	 * Invokes a slot's callback, timing it if metrics are enabled.
+	 * 
+	 * @see jsignal.Signal#invoke(ISlot, Object, Object[])
+	 */
+	final void invokeSlot(ISlot slot, Object listener, Object[] args) {
+		SignalMetrics metrics = this.metrics;
+		if (metrics == null) {
+			invoke(slot, listener, args);
+			return;
+		}
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			invoke(slot, listener, args);
+			failed = false;
+		} finally {
+			metrics.recordInvocation(slot, System.nanoTime() - start, failed);
+		}
+	}
+	
+	/**
+	 * Registers a slot, replacing the slot of an equal listener.
+	 * 
+	 * @param listener the slot's listener, which the caller keeps reachable
+	 * @param slot the slot to register
+	 * @return the replaced listener, or null if no listener was replaced
+	 */
+	final Object addSlot(final Object listener, final ISlot slot) {
+		expunge();
+		if (isDeferring()) {
+			defer(new Runnable() {
+				@Override
+				public void run() {
+					addSlot(listener, slot);
+				}
+			});
+			ISlot previous = listenerMap.get(new ListenerKey(listener));
+			return previous == null ? null : previous.getListener();
+		}
+		ISlot previous = listenerMap.remove(new ListenerKey(listener));
+		if (previous != null) {
+			detached(previous);
+		}
+		listenerMap.put(slot, slot);
+		attached(slot);
+		return previous == null ? null : previous.getListener();
+	}
+	
+	private boolean isDeferring() {
+		return iterating > 0 && runToCompletion;
+	}
+	
+	private void defer(Runnable mutation) {
+		if (deferred == null) {
+			deferred = new ArrayList<Runnable>();
+		}
+		deferred.add(mutation);
+	}
+	
+	private void applyDeferred() {
+		expunge();
+		if (deferred == null) {
+			return;
+		}
+		List<Runnable> mutations = deferred;
+		deferred = null;
+		for (Runnable mutation : mutations) {
+			mutation.run();
+		}
+	}
+	
+	/**
+	 * Called after a slot has been put into the listener map.  Subclasses which keep
+	 * their own listener structures override this to add the slot to them.
+	 * 
+	 * @param slot the added slot
+	 */
+	void attached(ISlot slot) {
+	}
+	
+	/**
+	 * Called after a slot has left the listener map, whether it was removed, replaced,
+	 * fired once or expunged.  Subclasses which keep their own listener structures
+	 * override this to remove the slot from them, and must call this implementation.
+	 * 
+	 * @param slot the removed slot
+	 */
+	void detached(ISlot slot) {
+		if (metrics != null) {
+			metrics.removed(slot);
+		}
+	}
+	
+	/**
+	 * Removes the slots of collected weak and soft listeners from this signal.
+	 * Only the slots whose references have been enqueued are visited.
+	 */
+	final void expunge() {
+		if (referenceQueue == null || iterating > 0) {
+			// collected slots are skipped while iterating, and expunged afterwards
+			return;
+		}
+		Reference<?> reference;
+		while ((reference = referenceQueue.poll()) != null) {
+			ISlot slot = ((Slot.ListenerReference) reference).getSlot();
+			if (listenerMap.remove(slot) != null) {
+				detached(slot);
 			}
-			if (slot.getAddOnce()) {
-				iterator.remove();
+		}
+	}
+	
+	/**
+	 * @param strength a reference strength
+	 * @return the queue collected listeners of that strength are enqueued on, or null for strong listeners
+	 */
+	final ReferenceQueue<Object> queueFor(ReferenceStrength strength) {
+		if (strength == ReferenceStrength.STRONG) {
+			return null;
+		}
+		if (referenceQueue == null) {
+			referenceQueue = new ReferenceQueue<Object>();
+		}
+		return referenceQueue;
+	}
+	
+	/**
+	 * Verifies once per dispatch that the arguments match the parameter types of a signal,
+	 * so that slot invokers can be called exactly without per listener type checks.
+	 * Primitive parameters accept their wrapper type, or any wrapper that widens to it.
+	 * 
+	 * @param params the parameter types of the signal
+	 * @param args the dispatched arguments
+	 * @throws SignalException if the arguments do not match the parameter types
+	 */
+	static void checkArgs(Class<?>[] params, Object[] args) {
+		int length = args == null ? 0 : args.length;
+		if (length != params.length) {
+			throw new SignalException("Expected "+params.length+" arguments but received "+Arrays.deepToString(args));
+		}
+		for (int i = 0; i < length; i++) {
+			if (!isAssignable(params[i], args[i])) {
+				throw new SignalException("Argument "+i+" is not of type "+params[i].getName()+" in "+Arrays.deepToString(args));
 			}
 		}
 	}
 	
+	/**
+	 * Invokes a slot's callback on the given listener.
+	 * 
+	 * @param slot the slot to invoke
+	 * @param listener the listener to invoke the slot's callback on
+	 * @param args the arguments, already verified by <code>checkArgs</code>
+	 * @throws SignalException if the callback throws an exception
+	 */
+	static void invoke(ISlot slot, Object listener, Object[] args) {
+		try {
+			slot.getInvoker().invokeExact(listener, args);
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new SignalException("Could not invoke method "+slot.getCallback(), e);
+		}
+	}
+	
+	private static boolean isAssignable(Class<?> type, Object arg) {
+		if (!type.isPrimitive()) {
+			return arg == null || type.isInstance(arg);
+		}
+		if (arg == null) {
+			return false;
+		}
+		Class<?> argType = arg.getClass();
+		if (type == boolean.class) {
+			return argType == Boolean.class;
+		}
+		if (type == char.class) {
+			return argType == Character.class;
+		}
+		int rank = numericRank(argType);
+		if (rank < 0) {
+			return false;
+		}
+		if (argType == Character.class) {
+			// char widens to int and beyond, but never to byte or short
+			return numericRank(wrapperOf(type)) >= numericRank(Integer.class);
+		}
+		return rank <= numericRank(wrapperOf(type));
+	}
+	
+	private static int numericRank(Class<?> type) {
+		if (type == Byte.class) return 0;
+		if (type == Short.class) return 1;
+		if (type == Character.class) return 1;
+		if (type == Integer.class) return 2;
+		if (type == Long.class) return 3;
+		if (type == Float.class) return 4;
+		if (type == Double.class) return 5;
+		return -1;
+	}
+	
+	private static Class<?> wrapperOf(Class<?> primitive) {
+		if (primitive == byte.class) return Byte.class;
+		if (primitive == short.class) return Short.class;
+		if (primitive == int.class) return Integer.class;
+		if (primitive == long.class) return Long.class;
+		if (primitive == float.class) return Float.class;
+		if (primitive == double.class) return Double.class;
+		return null;
+	}
+	
 	/**
 	 * Checks to see if a given listener has been registered to this signal.
 	 * 
@@ -140,8 +512,8 @@ public class Signal implements ISignalOwner {
 	 */
 	@Override
 	public boolean containsListener(Object listener) {
-		ISlot slot = listenerMap.get(listener);
-		return slot == null ? false : slot.getListener().equals(listener);
+		expunge();
+		return listener != null && listenerMap.containsKey(new ListenerKey(listener));
 	}
 	
 	/**
@@ -151,6 +523,7 @@ public class Signal implements ISignalOwner {
 	 */
 	@Override
 	public int numListeners() {
+		expunge();
 		return listenerMap.size();
 	}
 }
@@ -0,0 +1,57 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * A typed signal which dispatches no arguments to its listeners.
+ * 
+ * @see jsignal.TypedSignal
+ */
+public final class Signal0 extends TypedSignal<Signal0.Listener> {
+
+	/**
+	 * Listener for a <code>Signal0</code>.
+	 */
+	public interface Listener {
+		
+		/**
+		 * Called when the signal is dispatched.
+		 */
+		public void handle();
+	}
+	
+	/**
+	 * Constructor
+	 */
+	public Signal0() {
+		super();
+	}
+	
+	/**
+	 * Dispatches to all listeners registered to this signal.
+	 * 
+	 * @throws SignalException if the callback of a reflective listener could not be invoked
+	 */
+	public void dispatch() {
+		for (TypedSlot<Listener> slot : slots()) {
+			if (fire(slot)) {
+				slot.getListener().handle();
+			}
+		}
+	}
+	
+	@Override
+	void dispatchArgs(Object[] args) {
+		dispatch();
+	}
+	
+	@Override
+	Listener adapt(final ISlot slot) {
+		return new Listener() {
+			@Override
+			public void handle() {
+				invoke(slot);
+			}
+		};
+	}
+}
@@ -0,0 +1,74 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * A typed signal which dispatches one argument to its listeners.
+ * 
+ * @param <A> the type of the first argument
+ * @see jsignal.TypedSignal
+ */
+public final class Signal1 <A> extends TypedSignal<Signal1.Listener<A>> {
+
+	/**
+	 * Listener for a <code>Signal1</code>.
+	 */
+	public interface Listener <A> {
+		
+		/**
+		 * Called when the signal is dispatched.
+		 * 
+		 * @param a the first argument
+		 */
+		public void handle(A a);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * Reflective listeners added to a signal created with this constructor must declare
+	 * their callback parameters as <code>Object</code>.
+	 */
+	public Signal1() {
+		super(Object.class);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param aType the type of the first argument, used to resolve reflective listeners
+	 */
+	public Signal1(Class<A> aType) {
+		super(aType);
+	}
+	
+	/**
+	 * Dispatches to all listeners registered to this signal.
+	 * 
+	 * @param a the first argument
+	 * @throws SignalException if the callback of a reflective listener could not be invoked
+	 */
+	public void dispatch(A a) {
+		for (TypedSlot<Listener<A>> slot : slots()) {
+			if (fire(slot)) {
+				slot.getListener().handle(a);
+			}
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	void dispatchArgs(Object[] args) {
+		dispatch((A) args[0]);
+	}
+	
+	@Override
+	Listener<A> adapt(final ISlot slot) {
+		return new Listener<A>() {
+			@Override
+			public void handle(A a) {
+				invoke(slot, a);
+			}
+		};
+	}
+}
@@ -0,0 +1,78 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * A typed signal which dispatches two arguments to its listeners.
+ * 
+ * @param <A> the type of the first argument
+ * @param <B> the type of the second argument
+ * @see jsignal.TypedSignal
+ */
+public final class Signal2 <A,B> extends TypedSignal<Signal2.Listener<A,B>> {
+
+	/**
+	 * Listener for a <code>Signal2</code>.
+	 */
+	public interface Listener <A,B> {
+		
+		/**
+		 * Called when the signal is dispatched.
+		 * 
+		 * @param a the first argument
+		 * @param b the second argument
+		 */
+		public void handle(A a, B b);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * Reflective listeners added to a signal created with this constructor must declare
+	 * their callback parameters as <code>Object</code>.
+	 */
+	public Signal2() {
+		super(Object.class, Object.class);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param aType the type of the first argument, used to resolve reflective listeners
+	 * @param bType the type of the second argument, used to resolve reflective listeners
+	 */
+	public Signal2(Class<A> aType, Class<B> bType) {
+		super(aType, bType);
+	}
+	
+	/**
+	 * Dispatches to all listeners registered to this signal.
+	 * 
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @throws SignalException if the callback of a reflective listener could not be invoked
+	 */
+	public void dispatch(A a, B b) {
+		for (TypedSlot<Listener<A,B>> slot : slots()) {
+			if (fire(slot)) {
+				slot.getListener().handle(a, b);
+			}
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	void dispatchArgs(Object[] args) {
+		dispatch((A) args[0], (B) args[1]);
+	}
+	
+	@Override
+	Listener<A,B> adapt(final ISlot slot) {
+		return new Listener<A,B>() {
+			@Override
+			public void handle(A a, B b) {
+				invoke(slot, a, b);
+			}
+		};
+	}
+}
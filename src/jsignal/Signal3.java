@@ -0,0 +1,82 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * A typed signal which dispatches three arguments to its listeners.
+ * 
+ * @param <A> the type of the first argument
+ * @param <B> the type of the second argument
+ * @param <C> the type of the third argument
+ * @see jsignal.TypedSignal
+ */
+public final class Signal3 <A,B,C> extends TypedSignal<Signal3.Listener<A,B,C>> {
+
+	/**
+	 * Listener for a <code>Signal3</code>.
+	 */
+	public interface Listener <A,B,C> {
+		
+		/**
+		 * Called when the signal is dispatched.
+		 * 
+		 * @param a the first argument
+		 * @param b the second argument
+		 * @param c the third argument
+		 */
+		public void handle(A a, B b, C c);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * Reflective listeners added to a signal created with this constructor must declare
+	 * their callback parameters as <code>Object</code>.
+	 */
+	public Signal3() {
+		super(Object.class, Object.class, Object.class);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param aType the type of the first argument, used to resolve reflective listeners
+	 * @param bType the type of the second argument, used to resolve reflective listeners
+	 * @param cType the type of the third argument, used to resolve reflective listeners
+	 */
+	public Signal3(Class<A> aType, Class<B> bType, Class<C> cType) {
+		super(aType, bType, cType);
+	}
+	
+	/**
+	 * Dispatches to all listeners registered to this signal.
+	 * 
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @param c the third argument
+	 * @throws SignalException if the callback of a reflective listener could not be invoked
+	 */
+	public void dispatch(A a, B b, C c) {
+		for (TypedSlot<Listener<A,B,C>> slot : slots()) {
+			if (fire(slot)) {
+				slot.getListener().handle(a, b, c);
+			}
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	void dispatchArgs(Object[] args) {
+		dispatch((A) args[0], (B) args[1], (C) args[2]);
+	}
+	
+	@Override
+	Listener<A,B,C> adapt(final ISlot slot) {
+		return new Listener<A,B,C>() {
+			@Override
+			public void handle(A a, B b, C c) {
+				invoke(slot, a, b, c);
+			}
+		};
+	}
+}
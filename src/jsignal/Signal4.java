@@ -0,0 +1,86 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * A typed signal which dispatches four arguments to its listeners.
+ * 
+ * @param <A> the type of the first argument
+ * @param <B> the type of the second argument
+ * @param <C> the type of the third argument
+ * @param <D> the type of the fourth argument
+ * @see jsignal.TypedSignal
+ */
+public final class Signal4 <A,B,C,D> extends TypedSignal<Signal4.Listener<A,B,C,D>> {
+
+	/**
+	 * Listener for a <code>Signal4</code>.
+	 */
+	public interface Listener <A,B,C,D> {
+		
+		/**
+		 * Called when the signal is dispatched.
+		 * 
+		 * @param a the first argument
+		 * @param b the second argument
+		 * @param c the third argument
+		 * @param d the fourth argument
+		 */
+		public void handle(A a, B b, C c, D d);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * Reflective listeners added to a signal created with this constructor must declare
+	 * their callback parameters as <code>Object</code>.
+	 */
+	public Signal4() {
+		super(Object.class, Object.class, Object.class, Object.class);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param aType the type of the first argument, used to resolve reflective listeners
+	 * @param bType the type of the second argument, used to resolve reflective listeners
+	 * @param cType the type of the third argument, used to resolve reflective listeners
+	 * @param dType the type of the fourth argument, used to resolve reflective listeners
+	 */
+	public Signal4(Class<A> aType, Class<B> bType, Class<C> cType, Class<D> dType) {
+		super(aType, bType, cType, dType);
+	}
+	
+	/**
+	 * Dispatches to all listeners registered to this signal.
+	 * 
+	 * @param a the first argument
+	 * @param b the second argument
+	 * @param c the third argument
+	 * @param d the fourth argument
+	 * @throws SignalException if the callback of a reflective listener could not be invoked
+	 */
+	public void dispatch(A a, B b, C c, D d) {
+		for (TypedSlot<Listener<A,B,C,D>> slot : slots()) {
+			if (fire(slot)) {
+				slot.getListener().handle(a, b, c, d);
+			}
+		}
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	void dispatchArgs(Object[] args) {
+		dispatch((A) args[0], (B) args[1], (C) args[2], (D) args[3]);
+	}
+	
+	@Override
+	Listener<A,B,C,D> adapt(final ISlot slot) {
+		return new Listener<A,B,C,D>() {
+			@Override
+			public void handle(A a, B b, C c, D d) {
+				invoke(slot, a, b, c, d);
+			}
+		};
+	}
+}
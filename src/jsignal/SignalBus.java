@@ -0,0 +1,224 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The SignalBus class owns a set of signals keyed by hierarchical topic names, such as
+ * <code>"orders.eu.fr"</code>, and routes each dispatch to every signal whose topic
+ * pattern matches.  Topics are words separated by dots.  In a pattern, <code>*</code>
+ * matches exactly one word and <code>#</code> matches zero or more words, so
+ * <code>"orders.*.fr"</code> and <code>"orders.#"</code> both match <code>"orders.eu.fr"</code>.
+ * 
+ * Patterns are kept in a trie.  The signals matching a concrete topic are cached, so a
+ * repeated dispatch to the same topic is a single lookup; the cache is cleared whenever
+ * a new pattern is subscribed to.  At most {@value #MAX_CACHED_TOPICS} topics are cached,
+ * the least recently dispatched ones are evicted first.
+ * 
+ * Every topic dispatches the same parameter types.  Like Signal, this class is not thread
+ * safe.
+ * 
+ * @see jsignal.Signal
+ */
+public final class SignalBus {
+	static final int MAX_CACHED_TOPICS = 1024;
+	
+	private static final Signal[] NO_SIGNALS = new Signal[0];
+	
+	private final Class<?>[] params;
+	private final Node root = new Node();
+	private final Map<String, Signal[]> routes = new LinkedHashMap<String, Signal[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Signal[]> eldest) {
+			return size() > MAX_CACHED_TOPICS;
+		}
+	};
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param params the parameter types (as a Class instance) that every topic will dispatch as event data
+	 */
+	public SignalBus(Class<?>... params) {
+		this.params = params;
+	}
+	
+	/**
+	 * Returns the signal listening to a topic pattern, creating it if needed.  Listeners
+	 * added to the returned signal receive every dispatch to a matching topic.
+	 * 
+	 * @param pattern the topic pattern, which may contain <code>*</code> and <code>#</code> words
+	 * @return the signal for the pattern
+	 * @throws SignalException if the pattern is empty or has an empty word
+	 */
+	public ISignal signal(String pattern) {
+		Node node = root;
+		for (String word : split(pattern)) {
+			Node child = node.children.get(word);
+			if (child == null) {
+				child = new Node();
+				node.children.put(word, child);
+			}
+			node = child;
+		}
+		if (node.signal == null) {
+			node.signal = new Signal(params);
+			routes.clear();
+		}
+		return node.signal;
+	}
+	
+	/**
+	 * Registers a listener to a topic pattern.
+	 * 
+	 * @see jsignal.SignalBus#signal(java.lang.String)
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	public Object add(String pattern, Object listener, String callback, boolean addOnce) {
+		return signal(pattern).add(listener, callback, addOnce);
+	}
+	
+	/**
+	 * @see jsignal.SignalBus#add(java.lang.String, java.lang.Object, java.lang.String, boolean)
+	 */
+	public Object add(String pattern, Object listener, String callback) {
+		return add(pattern, listener, callback, false);
+	}
+	
+	/**
+	 * Unregisters a listener from a topic pattern.
+	 * 
+	 * @param pattern the topic pattern the listener was added to
+	 * @param listener the listener to remove
+	 * @return if the listener was successfully removed
+	 */
+	public boolean remove(String pattern, Object listener) {
+		Signal signal = find(pattern);
+		return signal != null && signal.remove(listener);
+	}
+	
+	/**
+	 * Unregisters every listener from every topic pattern.  Signals returned by
+	 * <code>signal</code> stay attached to the bus.
+	 */
+	public void removeAll() {
+		removeAll(root);
+	}
+	
+	/**
+	 * Dispatches the arguments to the listeners of every pattern matching a topic.
+	 * Patterns are dispatched to in no particular order.
+	 * 
+	 * @param topic the concrete topic, which may not contain wildcards
+	 * @param args the arguments to dispatch with
+	 * @throws SignalException if the topic is not a concrete topic, or a slot callback method could not be invoked
+	 */
+	public void dispatch(String topic, Object... args) {
+		Signal[] signals = routes.get(topic);
+		if (signals == null) {
+			signals = route(topic);
+			routes.put(topic, signals);
+		}
+		for (Signal signal : signals) {
+			signal.dispatch(args);
+		}
+	}
+	
+	/**
+	 * @param topic a concrete topic
+	 * @return the number of listeners a dispatch to the topic would reach
+	 */
+	public int numListeners(String topic) {
+		int count = 0;
+		for (Signal signal : route(topic)) {
+			count += signal.numListeners();
+		}
+		return count;
+	}
+	
+	private static void removeAll(Node node) {
+		if (node.signal != null) {
+			node.signal.removeAll();
+		}
+		for (Node child : node.children.values()) {
+			removeAll(child);
+		}
+	}
+	
+	private Signal find(String pattern) {
+		Node node = root;
+		for (String word : split(pattern)) {
+			node = node.children.get(word);
+			if (node == null) {
+				return null;
+			}
+		}
+		return node.signal;
+	}
+	
+	private Signal[] route(String topic) {
+		String[] words = split(topic);
+		for (String word : words) {
+			if (word.equals("*") || word.equals("#")) {
+				throw new SignalException("Cannot dispatch to wildcard topic `"+topic+"`");
+			}
+		}
+		// a topic can reach the same pattern along several paths, e.g. "a.#.#"
+		Map<Signal, Boolean> matched = new IdentityHashMap<Signal, Boolean>();
+		match(root, words, 0, matched);
+		return matched.isEmpty() ? NO_SIGNALS : matched.keySet().toArray(NO_SIGNALS);
+	}
+	
+	private static void match(Node node, String[] words, int index, Map<Signal, Boolean> matched) {
+		Node any = node.children.get("#");
+		if (any != null) {
+			for (int i = index; i <= words.length; i++) {
+				match(any, words, i, matched);
+			}
+		}
+		if (index == words.length) {
+			if (node.signal != null) {
+				matched.put(node.signal, Boolean.TRUE);
+			}
+			return;
+		}
+		Node child = node.children.get(words[index]);
+		if (child != null) {
+			match(child, words, index + 1, matched);
+		}
+		Node one = node.children.get("*");
+		if (one != null) {
+			match(one, words, index + 1, matched);
+		}
+	}
+	
+	private static String[] split(String topic) {
+		List<String> words = new ArrayList<String>();
+		int start = 0;
+		while (true) {
+			int end = topic.indexOf('.', start);
+			String word = end < 0 ? topic.substring(start) : topic.substring(start, end);
+			if (word.isEmpty()) {
+				throw new SignalException("Topic `"+topic+"` has an empty word");
+			}
+			words.add(word);
+			if (end < 0) {
+				return words.toArray(new String[words.size()]);
+			}
+			start = end + 1;
+		}
+	}
+	
+	private static final class Node {
+		final Map<String, Node> children = new HashMap<String, Node>(4);
+		Signal signal;
+	}
+}
@@ -0,0 +1,200 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The SignalClient class attaches local listeners to the signals exposed by a
+ * {@link SignalServer} in another process.
+ * 
+ * <code>signal</code> returns a local view of an exposed signal.  The client subscribes to
+ * the signal while the view has listeners, and dispatches the dispatches it receives to
+ * them on the thread running the client.  Exceptions thrown by listeners are logged to
+ * the <code>"com.paulm.jsignal"</code> Logger.  Views may be used from any thread.
+ * 
+ * @see jsignal.SignalServer
+ */
+public final class SignalClient implements Runnable, Closeable {
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	
+	private final SocketChannel channel;
+	private final Codecs codecs = new Codecs();
+	private final Map<Integer, RemoteSignal> signals = new ConcurrentHashMap<Integer, RemoteSignal>();
+	private final ByteBuffer control = ByteBuffer.allocate(SignalServer.HEADER_SIZE);
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param address the address of the server
+	 * @throws IOException if the server cannot be connected to
+	 */
+	public SignalClient(InetSocketAddress address) throws IOException {
+		channel = SocketChannel.open(address);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+	}
+	
+	/**
+	 * Sets the codec for an argument type, replacing any built-in codec.
+	 * Only signals viewed afterwards use it.
+	 * 
+	 * @param type the argument type
+	 * @param codec the codec
+	 */
+	public synchronized <T> void setCodec(Class<T> type, Codec<? super T> codec) {
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * Returns the local view of an exposed signal, creating it if needed.
+	 * 
+	 * @param signalId the id the signal is exposed with
+	 * @param params the parameter types the signal is exposed with
+	 * @return a signal receiving the dispatches of the exposed signal while it has listeners
+	 * @throws SignalException if a parameter type has no codec
+	 */
+	public synchronized ISignal signal(int signalId, Class<?>... params) {
+		RemoteSignal signal = signals.get(signalId);
+		if (signal == null) {
+			signal = new RemoteSignal(signalId, params.clone(), codecs.forParams(params));
+			signals.put(signalId, signal);
+		}
+		return signal;
+	}
+	
+	/**
+	 * Receives dispatches until the client is closed or the server disconnects.
+	 */
+	@Override
+	public void run() {
+		ByteBuffer in = ByteBuffer.allocate(SignalServer.MAX_FRAME);
+		try {
+			while (channel.read(in) >= 0) {
+				in.flip();
+				while (in.remaining() >= 4) {
+					int length = in.getInt(in.position());
+					if (length < SignalServer.HEADER_SIZE || length > SignalServer.MAX_FRAME) {
+						throw new IOException("Invalid frame length "+length);
+					}
+					if (in.remaining() < length) {
+						break;
+					}
+					int end = in.position() + length;
+					in.getInt();
+					byte type = in.get();
+					RemoteSignal signal = signals.get(in.getInt());
+					if (type == SignalServer.DISPATCH && signal != null) {
+						try {
+							signal.receive(in);
+						} catch (RuntimeException e) {
+							LOGGER.log(Level.WARNING, "Remote dispatch failed", e);
+						}
+					}
+					in.position(end);
+				}
+				in.compact();
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				LOGGER.log(Level.WARNING, "Signal client failed", e);
+			}
+		} finally {
+			close();
+		}
+	}
+	
+	/**
+	 * Disconnects from the server.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		try {
+			channel.close();
+		} catch (IOException ignored) {
+		}
+	}
+	
+	private void send(byte type, int signalId) {
+		synchronized (control) {
+			control.clear();
+			control.putInt(SignalServer.HEADER_SIZE);
+			control.put(type);
+			control.putInt(signalId);
+			control.flip();
+			try {
+				while (control.hasRemaining()) {
+					channel.write(control);
+				}
+			} catch (IOException e) {
+				throw new SignalException("Could not reach the signal server", e);
+			}
+		}
+	}
+	
+	/**
+	 * A local signal which is subscribed to the server while it has listeners.
+	 */
+	private final class RemoteSignal implements ISignal {
+		final int signalId;
+		final Class<?>[] params;
+		final Codec<Object>[] codecs;
+		final Signal local;
+		boolean subscribed;
+		
+		RemoteSignal(int signalId, Class<?>[] params, Codec<Object>[] codecs) {
+			this.signalId = signalId;
+			this.params = params;
+			this.codecs = codecs;
+			this.local = new Signal(params);
+		}
+		
+		@Override
+		public synchronized Object add(Object listener, String callback, boolean addOnce) {
+			Object previous = local.add(listener, callback, addOnce);
+			update();
+			return previous;
+		}
+		
+		@Override
+		public synchronized boolean remove(Object listener) {
+			boolean removed = local.remove(listener);
+			update();
+			return removed;
+		}
+		
+		@Override
+		public synchronized boolean containsListener(Object listener) {
+			return local.containsListener(listener);
+		}
+		
+		@Override
+		public synchronized int numListeners() {
+			return local.numListeners();
+		}
+		
+		synchronized void receive(ByteBuffer frame) {
+			local.dispatch(Codecs.decode(params, codecs, frame));
+			// addOnce listeners may have been the last
+			update();
+		}
+		
+		private void update() {
+			boolean listening = local.numListeners() > 0;
+			if (listening != subscribed) {
+				subscribed = listening;
+				send(listening ? SignalServer.SUBSCRIBE : SignalServer.UNSUBSCRIBE, signalId);
+			}
+		}
+	}
+}
@@ -13,7 +13,7 @@ public final class SignalException extends RuntimeException
 		super(message);
 	}
 
-	protected SignalException(String message, Exception inner) {
+	protected SignalException(String message, Throwable inner) {
 		super(message, inner);
 	}
 }
@@ -0,0 +1,26 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a public listener method as a signal callback.
+ * 
+ * When the jsignal jar is on the annotation processor path, compiling a class with
+ * annotated methods generates a {@link ListenerAdapter} which calls those methods
+ * directly.  Adding the listener to a signal by the method's name then uses the
+ * adapter instead of reflection.  Methods which are not annotated, or classes compiled
+ * without the processor, are still resolved reflectively.
+ * 
+ * @see jsignal.Signal#add(java.lang.Object, java.lang.String)
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.METHOD)
+public @interface SignalHandler {
+}
@@ -0,0 +1,202 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The SignalJournal class records dispatches to an append-only journal of memory-mapped
+ * segment files, for auditing and for replay with a {@link JournalReplayer}.
+ * 
+ * Signals are journaled by wrapping them with <code>record</code>.  Each dispatch through
+ * the wrapper is checked against the signal's parameter types, appended to the journal
+ * with a timestamp and the signal's id, and then dispatched to the wrapped signal.
+ * Arguments are written by a {@link Codec} per parameter type; primitive types, their
+ * wrappers, <code>String</code> and <code>byte[]</code> have built-in codecs.  Appending
+ * does not allocate, provided the codecs do not.
+ * 
+ * Segments are preallocated files of a fixed size named <code>journal-N.seg</code>.  When
+ * a dispatch does not fit in the current segment, the journal moves on to a new one.  A
+ * journal opened on a directory which already has segments starts a new segment after
+ * them.  Appends are synchronized, so wrapped signals may be dispatched from any thread.
+ * 
+ * Records are laid out as an <code>int</code> length, a <code>long</code> timestamp in
+ * nanoseconds since the epoch, an <code>int</code> signal id and the encoded arguments,
+ * each non-primitive argument preceded by a byte which is 0 for null.  The length is
+ * written last, so a reader never sees a partially written record.
+ * 
+ * @see jsignal.JournalReplayer
+ */
+public final class SignalJournal implements Closeable {
+	static final int MAGIC = 0x4A534A31;
+	static final int HEADER_SIZE = 4 + 8 + 4;
+	static final String SEGMENT_PREFIX = "journal-";
+	static final String SEGMENT_SUFFIX = ".seg";
+	
+	private final Path directory;
+	private final int segmentSize;
+	private final Codecs codecs = new Codecs();
+	private final long epochOffsetNanos = System.currentTimeMillis() * 1000000L - System.nanoTime();
+	private MappedByteBuffer segment;
+	private long segmentIndex;
+	private boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param directory the directory to write segments to, which is created if needed
+	 * @param segmentSize the size of each segment file in bytes
+	 * @throws IOException if the directory or first segment cannot be created
+	 */
+	public SignalJournal(Path directory, int segmentSize) throws IOException {
+		if (segmentSize < 4 + HEADER_SIZE) {
+			throw new IllegalArgumentException("Segment size is too small: "+segmentSize);
+		}
+		this.directory = Files.createDirectories(directory);
+		this.segmentSize = segmentSize;
+		this.segmentIndex = lastSegmentIndex(directory);
+		roll();
+	}
+	
+	/**
+	 * Sets the codec for an argument type, replacing any built-in codec.
+	 * Only signals recorded afterwards use it.
+	 * 
+	 * @param type the argument type
+	 * @param codec the codec
+	 */
+	public synchronized <T> void setCodec(Class<T> type, Codec<? super T> codec) {
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * Wraps a signal so every dispatch through the wrapper is journaled.
+	 * 
+	 * @param signalId the id the dispatches are recorded with, used to route them on replay
+	 * @param signal the signal to wrap
+	 * @param params the parameter types of the signal
+	 * @return a signal which journals and then dispatches to the wrapped signal
+	 * @throws SignalException if a parameter type has no codec
+	 */
+	public synchronized ISignalOwner record(int signalId, ISignalOwner signal, Class<?>... params) {
+		return new JournalingSignal(this, signalId, signal, params, codecs.forParams(params));
+	}
+	
+	/**
+	 * Appends a dispatch to the journal.
+	 * 
+	 * @throws SignalException if the record is larger than a segment, or a new segment cannot be created
+	 */
+	synchronized void append(int signalId, Class<?>[] params, Codec<Object>[] argCodecs, Object[] args) {
+		if (closed) {
+			throw new SignalException("Journal is closed");
+		}
+		long timestamp = epochOffsetNanos + System.nanoTime();
+		for (int attempt = 0; ; attempt++) {
+			int start = segment.position();
+			try {
+				if (segment.remaining() < HEADER_SIZE) {
+					throw new BufferOverflowException();
+				}
+				segment.position(start + 4);
+				segment.putLong(timestamp);
+				segment.putInt(signalId);
+				Codecs.encode(params, argCodecs, args, segment);
+				int end = segment.position();
+				segment.putInt(start, end - start);
+				return;
+			} catch (BufferOverflowException e) {
+				discard(start);
+				if (attempt > 0) {
+					throw new SignalException("Dispatch does not fit in a journal segment of "+segmentSize+" bytes", e);
+				}
+				try {
+					roll();
+				} catch (IOException ioe) {
+					throw new SignalException("Could not create journal segment", ioe);
+				}
+			} catch (RuntimeException | Error e) {
+				// a codec failed, the next record goes where this one started
+				discard(start);
+				throw e;
+			}
+		}
+	}
+	
+	/**
+	 * Zeroes a partly written record, so replay does not read past it, and rewinds to its start.
+	 */
+	private void discard(int start) {
+		int end = segment.position();
+		for (int i = start; i < end; i++) {
+			segment.put(i, (byte) 0);
+		}
+		segment.position(start);
+	}
+	
+	/**
+	 * Flushes the current segment to disk.
+	 */
+	public synchronized void force() {
+		segment.force();
+	}
+	
+	/**
+	 * Flushes the current segment to disk and stops recording.  Dispatches through
+	 * recorded signals fail afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		if (!closed) {
+			closed = true;
+			segment.force();
+		}
+	}
+	
+	private void roll() throws IOException {
+		if (segment != null) {
+			segment.force();
+		}
+		segmentIndex++;
+		Path file = directory.resolve(segmentName(segmentIndex));
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		} finally {
+			channel.close();
+		}
+		segment.putInt(MAGIC);
+	}
+	
+	static String segmentName(long index) {
+		return SEGMENT_PREFIX+String.format("%016d", index)+SEGMENT_SUFFIX;
+	}
+	
+	/**
+	 * @return the highest index of the segments in a directory, or 0 if it has none
+	 */
+	static long lastSegmentIndex(Path directory) throws IOException {
+		long last = 0;
+		DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX+"*"+SEGMENT_SUFFIX);
+		try {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				try {
+					last = Math.max(last, Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+				} catch (NumberFormatException ignored) {
+				}
+			}
+		} finally {
+			files.close();
+		}
+		return last;
+	}
+}
@@ -0,0 +1,172 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Records dispatch and listener callback metrics for a signal.
+ * 
+ * Metrics are opt in: a signal only records them once an instance has been
+ * attached with <code>Signal.setMetrics</code>, and otherwise pays a single null
+ * check per dispatch and per listener.  Recording uses striped counters and a lock
+ * free histogram, so it is cheap enough to leave on under load and is safe when a
+ * signal is dispatched from several threads.
+ * 
+ * @see jsignal.Signal#setMetrics(SignalMetrics)
+ */
+public final class SignalMetrics implements SignalMetricsMXBean {
+	private final LongAdder dispatches = new LongAdder();
+	private final LongAdder invocations = new LongAdder();
+	private final LongAdder exceptions = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final Map<ISlot, ListenerMetrics> listeners = new ConcurrentHashMap<ISlot, ListenerMetrics>();
+	
+	/**
+	 * Registers these metrics with the platform MBean server under
+	 * <code>jsignal:type=Signal,name=<i>name</i></code>.
+	 * 
+	 * @param name the name identifying the signal
+	 * @return the name the metrics were registered under, which can be used to unregister them
+	 * @throws SignalException if the metrics could not be registered
+	 */
+	public ObjectName register(String name) {
+		try {
+			ObjectName objectName = ObjectName.getInstance("jsignal:type=Signal,name="+ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new SignalException("Could not register metrics for signal "+name, e);
+		}
+	}
+	
+	/**
+	 * @return a copy of the current metrics
+	 */
+	public MetricsSnapshot snapshot() {
+		List<MetricsSnapshot.Listener> listenerSnapshots = new ArrayList<MetricsSnapshot.Listener>(listeners.size());
+		for (Map.Entry<ISlot, ListenerMetrics> entry : listeners.entrySet()) {
+			listenerSnapshots.add(entry.getValue().snapshot(entry.getKey()));
+		}
+		return new MetricsSnapshot(dispatches.sum(), invocations.sum(), exceptions.sum(),
+			totalNanos.sum(), maxNanos.get(), histogram.counts(), listenerSnapshots);
+	}
+	
+	@Override
+	public long getDispatchCount() {
+		return dispatches.sum();
+	}
+	
+	@Override
+	public long getInvocationCount() {
+		return invocations.sum();
+	}
+	
+	@Override
+	public long getExceptionCount() {
+		return exceptions.sum();
+	}
+	
+	@Override
+	public long getTotalLatencyNanos() {
+		return totalNanos.sum();
+	}
+	
+	@Override
+	public long getP50LatencyNanos() {
+		return LatencyHistogram.percentile(histogram.counts(), 50);
+	}
+	
+	@Override
+	public long getP99LatencyNanos() {
+		return LatencyHistogram.percentile(histogram.counts(), 99);
+	}
+	
+	@Override
+	public long getP999LatencyNanos() {
+		return LatencyHistogram.percentile(histogram.counts(), 99.9);
+	}
+	
+	@Override
+	public long getMaxLatencyNanos() {
+		return maxNanos.get();
+	}
+	
+	@Override
+	public void reset() {
+		dispatches.reset();
+		invocations.reset();
+		exceptions.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+		histogram.reset();
+		listeners.clear();
+	}
+	
+	void recordDispatch() {
+		dispatches.increment();
+	}
+	
+	void recordInvocation(ISlot slot, long nanos, boolean failed) {
+		invocations.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		histogram.record(nanos);
+		if (failed) {
+			exceptions.increment();
+		}
+		ListenerMetrics listener = listeners.get(slot);
+		if (listener == null) {
+			listener = listeners.computeIfAbsent(slot, key -> new ListenerMetrics());
+		}
+		listener.record(nanos, failed);
+	}
+	
+	/**
+	 * Forgets the metrics of a listener that has been removed from the signal.
+	 */
+	void removed(ISlot slot) {
+		listeners.remove(slot);
+	}
+	
+	/**
+	 * Forgets the metrics of all listeners, after all were removed from the signal.
+	 */
+	void removedAll() {
+		listeners.clear();
+	}
+	
+	private static final class ListenerMetrics {
+		private final LongAdder invocations = new LongAdder();
+		private final LongAdder exceptions = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		
+		void record(long nanos, boolean failed) {
+			invocations.increment();
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+			if (failed) {
+				exceptions.increment();
+			}
+		}
+		
+		MetricsSnapshot.Listener snapshot(ISlot slot) {
+			Object listener = slot.getListener();
+			String name = (listener == null ? "<collected>" : listener.getClass().getName()+"@"+Integer.toHexString(System.identityHashCode(listener)))
+				+"."+slot.getCallback().getName();
+			return new MetricsSnapshot.Listener(name, invocations.sum(), exceptions.sum(), totalNanos.sum(), maxNanos.get());
+		}
+	}
+}
@@ -0,0 +1,56 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+/**
+ * Management interface for the metrics of a signal.
+ * 
+ * @see jsignal.SignalMetrics#register(String)
+ */
+public interface SignalMetricsMXBean {
+
+	/**
+	 * @return the number of dispatches
+	 */
+	public long getDispatchCount();
+	
+	/**
+	 * @return the number of listener invocations
+	 */
+	public long getInvocationCount();
+	
+	/**
+	 * @return the number of listener invocations that threw an exception
+	 */
+	public long getExceptionCount();
+	
+	/**
+	 * @return the cumulative time spent in listener callbacks, in nanoseconds
+	 */
+	public long getTotalLatencyNanos();
+	
+	/**
+	 * @return the median listener callback latency, in nanoseconds
+	 */
+	public long getP50LatencyNanos();
+	
+	/**
+	 * @return the 99th percentile listener callback latency, in nanoseconds
+	 */
+	public long getP99LatencyNanos();
+	
+	/**
+	 * @return the 99.9th percentile listener callback latency, in nanoseconds
+	 */
+	public long getP999LatencyNanos();
+	
+	/**
+	 * @return the highest listener callback latency, in nanoseconds
+	 */
+	public long getMaxLatencyNanos();
+	
+	/**
+	 * Resets all metrics to zero.
+	 */
+	public void reset();
+}
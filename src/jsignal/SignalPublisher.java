@@ -0,0 +1,350 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes the dispatches of a signal to <code>Flow</code> subscribers, as argument arrays.
+ * 
+ * Each dispatch through the publisher goes to the wrapped signal and is then queued for
+ * every subscriber.  Each subscriber has a queue of its own, bounded by the capacity, and
+ * receives queued dispatches on the executor only as far as it has requested them.  When
+ * a queue is full, the overflow policy decides what happens to the dispatch, so a slow
+ * subscriber neither holds back the others nor grows without bound.  Dispatches are
+ * never queued for subscribers that are added later.
+ * 
+ * Closing the publisher completes every subscriber once it has received its queued
+ * dispatches.  Exceptions thrown by a subscriber cancel its subscription and are logged
+ * to the <code>"com.paulm.jsignal"</code> Logger.  The publisher may be dispatched from
+ * any thread, as long as the wrapped signal may be.
+ * 
+ * @see jsignal.Signals#publisher(ISignalOwner, int, OverflowPolicy, Executor)
+ */
+public final class SignalPublisher implements ISignalOwner, Flow.Publisher<Object[]>, Closeable {
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	
+	private final ISignalOwner signal;
+	private final int capacity;
+	private final OverflowPolicy policy;
+	private final Executor executor;
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+	private final AtomicLong numDropped = new AtomicLong();
+	private volatile boolean closed;
+	
+	SignalPublisher(ISignalOwner signal, int capacity, OverflowPolicy policy, Executor executor) {
+		if (signal == null || policy == null || executor == null) {
+			throw new NullPointerException();
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: "+capacity);
+		}
+		this.signal = signal;
+		this.capacity = capacity;
+		this.policy = policy;
+		this.executor = executor;
+	}
+	
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce) {
+		return signal.add(listener, callback, addOnce);
+	}
+	
+	@Override
+	public boolean remove(Object listener) {
+		return signal.remove(listener);
+	}
+	
+	@Override
+	public boolean containsListener(Object listener) {
+		return signal.containsListener(listener);
+	}
+	
+	/**
+	 * @return the number of listeners of the wrapped signal, not counting subscribers
+	 */
+	@Override
+	public int numListeners() {
+		return signal.numListeners();
+	}
+	
+	@Override
+	public void removeAll() {
+		signal.removeAll();
+	}
+	
+	/**
+	 * Dispatches to the wrapped signal, and then queues the arguments for every subscriber.
+	 * With the <code>BLOCK</code> policy, this waits while a subscriber's queue is full.
+	 * 
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	public void dispatch(Object... args) {
+		signal.dispatch(args);
+		for (Subscription subscription : subscriptions) {
+			subscription.offer(args);
+		}
+	}
+	
+	/**
+	 * Subscribes to the dispatches made from now on.  <code>onSubscribe</code> is called
+	 * on the calling thread, the other methods of the subscriber on the executor.
+	 * 
+	 * @param subscriber the subscriber
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super Object[]> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException();
+		}
+		Subscription subscription = new Subscription(subscriber);
+		for (Subscription existing : subscriptions) {
+			if (existing.subscriber == subscriber) {
+				subscription.fail(new IllegalStateException("Already subscribed"));
+				break;
+			}
+		}
+		subscriber.onSubscribe(subscription);
+		if (subscription.isTerminated()) {
+			subscription.drain();
+			return;
+		}
+		subscriptions.add(subscription);
+		if (closed) {
+			// the publisher was closed while subscribing
+			subscription.complete();
+		}
+	}
+	
+	/**
+	 * @return the number of subscribers which have not cancelled and have not been completed
+	 */
+	public int numSubscribers() {
+		return subscriptions.size();
+	}
+	
+	/**
+	 * @return the number of dispatches dropped or conflated, summed over all subscribers
+	 */
+	public long numDropped() {
+		return numDropped.get();
+	}
+	
+	/**
+	 * Completes every subscriber after its queued dispatches.  Later subscribers are
+	 * completed straight away.  Dispatches still reach the wrapped signal.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		for (Subscription subscription : subscriptions) {
+			subscription.complete();
+		}
+	}
+	
+	/**
+	 * A subscriber's queue and demand.  Queued dispatches are delivered by a single drain
+	 * task at a time, submitted to the executor whenever there is work and none is running.
+	 */
+	private final class Subscription implements Flow.Subscription, Runnable {
+		final Flow.Subscriber<? super Object[]> subscriber;
+		final ReentrantLock lock = new ReentrantLock();
+		final Condition notFull = lock.newCondition();
+		final ArrayDeque<Object[]> queue = new ArrayDeque<Object[]>();
+		final AtomicInteger work = new AtomicInteger();
+		long demand;
+		boolean cancelled;
+		boolean completing;
+		Throwable error;
+		boolean terminated;
+		
+		Subscription(Flow.Subscriber<? super Object[]> subscriber) {
+			this.subscriber = subscriber;
+		}
+		
+		@Override
+		public void request(long n) {
+			lock.lock();
+			try {
+				if (cancelled) {
+					return;
+				}
+				if (n <= 0) {
+					fail(new IllegalArgumentException("Non-positive request: "+n));
+				} else {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				}
+			} finally {
+				lock.unlock();
+			}
+			drain();
+		}
+		
+		@Override
+		public void cancel() {
+			lock.lock();
+			try {
+				cancelled = true;
+				queue.clear();
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			subscriptions.remove(this);
+		}
+		
+		void offer(Object[] args) {
+			lock.lock();
+			try {
+				if (cancelled || completing) {
+					return;
+				}
+				if (queue.size() >= capacity) {
+					switch (policy) {
+						case DROP_OLDEST:
+							queue.poll();
+							numDropped.incrementAndGet();
+							break;
+						case DROP_NEWEST:
+							numDropped.incrementAndGet();
+							return;
+						case CONFLATE_LATEST:
+							queue.pollLast();
+							numDropped.incrementAndGet();
+							break;
+						case BLOCK:
+							while (queue.size() >= capacity && !cancelled) {
+								notFull.awaitUninterruptibly();
+							}
+							if (cancelled) {
+								return;
+							}
+							break;
+					}
+				}
+				queue.add(args);
+			} finally {
+				lock.unlock();
+			}
+			drain();
+		}
+		
+		void complete() {
+			lock.lock();
+			try {
+				completing = true;
+			} finally {
+				lock.unlock();
+			}
+			drain();
+		}
+		
+		/**
+		 * Cancels the subscription and signals an error to the subscriber once drained.
+		 */
+		void fail(Throwable throwable) {
+			lock.lock();
+			try {
+				error = throwable;
+				cancelled = true;
+				queue.clear();
+				notFull.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			subscriptions.remove(this);
+		}
+		
+		boolean isTerminated() {
+			lock.lock();
+			try {
+				return cancelled;
+			} finally {
+				lock.unlock();
+			}
+		}
+		
+		void drain() {
+			if (work.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+		
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				try {
+					deliver();
+				} catch (RuntimeException e) {
+					LOGGER.log(Level.WARNING, "Subscriber failed, cancelling its subscription", e);
+					cancel();
+				}
+				missed = work.addAndGet(-missed);
+			} while (missed != 0);
+		}
+		
+		private void deliver() {
+			while (true) {
+				Object[] args;
+				boolean done;
+				Throwable failure = null;
+				lock.lock();
+				try {
+					if (terminated) {
+						return;
+					}
+					if (cancelled) {
+						terminated = true;
+						failure = error;
+						if (failure == null) {
+							return;
+						}
+						args = null;
+						done = false;
+					} else if (queue.isEmpty()) {
+						if (!completing) {
+							return;
+						}
+						terminated = true;
+						args = null;
+						done = true;
+					} else if (demand == 0) {
+						return;
+					} else {
+						args = queue.poll();
+						if (demand != Long.MAX_VALUE) {
+							demand--;
+						}
+						notFull.signal();
+						done = false;
+					}
+				} finally {
+					lock.unlock();
+				}
+				if (failure != null) {
+					subscriber.onError(failure);
+					return;
+				}
+				if (done) {
+					subscriptions.remove(this);
+					subscriber.onComplete();
+					return;
+				}
+				subscriber.onNext(args);
+			}
+		}
+	}
+}
@@ -0,0 +1,382 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The SignalServer class exposes signals on a TCP socket, so listeners in other processes
+ * can be attached to them through a {@link SignalClient}.
+ * 
+ * Signals are exposed by wrapping them with <code>expose</code>.  Each dispatch through
+ * the wrapper is checked against the signal's parameter types, dispatched to the wrapped
+ * signal, and encoded once with the same {@link Codec}s as a {@link SignalJournal} for
+ * every client subscribed to the signal's id.  Clients subscribe while they have local
+ * listeners and unsubscribe when the last one is removed.
+ * 
+ * All socket I/O is non-blocking and done by the thread running the server, so one
+ * thread serves any number of clients.  A dispatch only appends its frame to each
+ * subscriber's buffer, and the server thread writes everything buffered for a client in
+ * one write, so bursts of dispatches are batched.  A client which falls more than
+ * {@value #MAX_PENDING} bytes behind is disconnected rather than buffered without bound.
+ * Wrapped signals may be dispatched from any thread.
+ * 
+ * Frames are laid out as an <code>int</code> length, including itself, a <code>byte</code>
+ * type and an <code>int</code> signal id, followed by the encoded arguments for dispatches.
+ * 
+ * @see jsignal.SignalClient
+ */
+public final class SignalServer implements Runnable, Closeable {
+	static final byte SUBSCRIBE = 1;
+	static final byte UNSUBSCRIBE = 2;
+	static final byte DISPATCH = 3;
+	static final int HEADER_SIZE = 4 + 1 + 4;
+	static final int MAX_FRAME = 1 << 16;
+	static final int MAX_PENDING = 1 << 22;
+	
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	
+	private final Selector selector;
+	private final ServerSocketChannel serverChannel;
+	private final Codecs codecs = new Codecs();
+	private final Map<Integer, ExposedSignal> exposed = new ConcurrentHashMap<Integer, ExposedSignal>();
+	private final Queue<Connection> dirty = new ConcurrentLinkedQueue<Connection>();
+	private final AtomicBoolean wakeupPending = new AtomicBoolean();
+	private final ThreadLocal<ByteBuffer> frames = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(MAX_FRAME);
+		}
+	};
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param address the address to listen on, a port of 0 picks a free port
+	 * @throws IOException if the socket cannot be bound
+	 */
+	public SignalServer(InetSocketAddress address) throws IOException {
+		selector = Selector.open();
+		serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(address);
+			serverChannel.configureBlocking(false);
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			serverChannel.close();
+			selector.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * @return the address the server is listening on
+	 * @throws IOException if the server is closed
+	 */
+	public InetSocketAddress getAddress() throws IOException {
+		return (InetSocketAddress) serverChannel.getLocalAddress();
+	}
+	
+	/**
+	 * Sets the codec for an argument type, replacing any built-in codec.
+	 * Only signals exposed afterwards use it.
+	 * 
+	 * @param type the argument type
+	 * @param codec the codec
+	 */
+	public synchronized <T> void setCodec(Class<T> type, Codec<? super T> codec) {
+		codecs.put(type, codec);
+	}
+	
+	/**
+	 * Wraps a signal so every dispatch through the wrapper also reaches the subscribed clients.
+	 * 
+	 * @param signalId the id clients subscribe to the signal with
+	 * @param signal the signal to wrap
+	 * @param params the parameter types of the signal
+	 * @return a signal which dispatches to the wrapped signal and then to the clients
+	 * @throws SignalException if a parameter type has no codec, or the id is already exposed
+	 */
+	public synchronized ISignalOwner expose(int signalId, ISignalOwner signal, Class<?>... params) {
+		ExposedSignal wrapper = new ExposedSignal(this, signalId, signal, params, codecs.forParams(params));
+		if (exposed.containsKey(signalId)) {
+			throw new SignalException("Signal id "+signalId+" is already exposed");
+		}
+		exposed.put(signalId, wrapper);
+		return wrapper;
+	}
+	
+	/**
+	 * @param signalId the id of an exposed signal
+	 * @return the number of clients subscribed to the signal
+	 */
+	public int numSubscribers(int signalId) {
+		ExposedSignal signal = exposed.get(signalId);
+		return signal == null ? 0 : signal.subscribers.size();
+	}
+	
+	/**
+	 * Serves clients until the server is closed.
+	 */
+	@Override
+	public void run() {
+		try {
+			while (!closed) {
+				selector.select();
+				wakeupPending.set(false);
+				Connection connection;
+				while ((connection = dirty.poll()) != null) {
+					connection.flush();
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					connection = (Connection) key.attachment();
+					if (key.isReadable()) {
+						connection.read();
+					}
+					if (key.isValid() && key.isWritable()) {
+						connection.flush();
+					}
+				}
+			}
+		} catch (IOException e) {
+			if (!closed) {
+				LOGGER.log(Level.WARNING, "Signal server failed", e);
+			}
+		} finally {
+			for (SelectionKey key : selector.keys()) {
+				if (key.attachment() instanceof Connection) {
+					((Connection) key.attachment()).disconnect();
+				}
+			}
+			try {
+				serverChannel.close();
+				selector.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+	
+	/**
+	 * Stops the server and disconnects every client.  Dispatches through exposed signals
+	 * still reach the wrapped signals.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		selector.wakeup();
+	}
+	
+	/**
+	 * Encodes a dispatch once and appends it to the buffer of every subscriber.
+	 * 
+	 * @throws SignalException if the encoded dispatch is larger than a frame
+	 */
+	void broadcast(ExposedSignal signal, Object[] args) {
+		ByteBuffer frame = frames.get();
+		frame.clear();
+		try {
+			frame.putInt(0);
+			frame.put(DISPATCH);
+			frame.putInt(signal.signalId);
+			Codecs.encode(signal.params, signal.codecs, args, frame);
+		} catch (BufferOverflowException e) {
+			throw new SignalException("Dispatch does not fit in a frame of "+MAX_FRAME+" bytes", e);
+		}
+		frame.putInt(0, frame.position());
+		frame.flip();
+		for (Connection connection : signal.subscribers) {
+			connection.enqueue(frame);
+		}
+	}
+	
+	private void accept() throws IOException {
+		SocketChannel channel = serverChannel.accept();
+		if (channel == null) {
+			return;
+		}
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		Connection connection = new Connection(channel);
+		connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+	}
+	
+	private void wakeup() {
+		if (wakeupPending.compareAndSet(false, true)) {
+			selector.wakeup();
+		}
+	}
+	
+	/**
+	 * A client connection.  Its subscriptions and socket are only touched by the server
+	 * thread; its outgoing buffer is appended to by dispatching threads.
+	 */
+	private final class Connection {
+		final SocketChannel channel;
+		final ByteBuffer in = ByteBuffer.allocate(HEADER_SIZE * 64);
+		final List<ExposedSignal> subscriptions = new ArrayList<ExposedSignal>();
+		SelectionKey key;
+		/** Written frames, in write mode.  Guarded by this connection. */
+		ByteBuffer out = ByteBuffer.allocate(8192);
+		boolean queued;
+		boolean overflowed;
+		boolean disconnected;
+		
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+		}
+		
+		void enqueue(ByteBuffer frame) {
+			synchronized (this) {
+				if (disconnected || overflowed) {
+					return;
+				}
+				if (out.remaining() < frame.remaining()) {
+					int needed = out.position() + frame.remaining();
+					if (needed > MAX_PENDING) {
+						overflowed = true;
+					} else {
+						ByteBuffer grown = ByteBuffer.allocate(Math.min(MAX_PENDING, Math.max(needed, out.capacity() * 2)));
+						out.flip();
+						grown.put(out);
+						out = grown;
+					}
+				}
+				if (!overflowed) {
+					out.put(frame.duplicate());
+				}
+				if (queued) {
+					return;
+				}
+				queued = true;
+			}
+			dirty.add(this);
+			wakeup();
+		}
+		
+		void flush() {
+			try {
+				synchronized (this) {
+					queued = false;
+					if (overflowed) {
+						LOGGER.warning("Disconnecting "+channel.getRemoteAddress()+", it fell more than "+MAX_PENDING+" bytes behind");
+						disconnect();
+						return;
+					}
+					if (disconnected) {
+						return;
+					}
+					out.flip();
+					channel.write(out);
+					out.compact();
+					key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+				}
+			} catch (IOException e) {
+				disconnect();
+			}
+		}
+		
+		void read() {
+			try {
+				if (channel.read(in) < 0) {
+					disconnect();
+					return;
+				}
+			} catch (IOException e) {
+				disconnect();
+				return;
+			}
+			in.flip();
+			while (in.remaining() >= HEADER_SIZE) {
+				int length = in.getInt(in.position());
+				if (length != HEADER_SIZE) {
+					LOGGER.warning("Disconnecting client after an invalid frame");
+					disconnect();
+					return;
+				}
+				in.getInt();
+				byte type = in.get();
+				ExposedSignal signal = exposed.get(in.getInt());
+				if (signal == null) {
+					continue;
+				}
+				if (type == SUBSCRIBE && !subscriptions.contains(signal)) {
+					subscriptions.add(signal);
+					signal.subscribers.add(this);
+				} else if (type == UNSUBSCRIBE && subscriptions.remove(signal)) {
+					signal.subscribers.remove(this);
+				}
+			}
+			in.compact();
+		}
+		
+		void disconnect() {
+			synchronized (this) {
+				disconnected = true;
+			}
+			for (ExposedSignal signal : subscriptions) {
+				signal.subscribers.remove(this);
+			}
+			subscriptions.clear();
+			if (key != null) {
+				key.cancel();
+			}
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+	
+	/**
+	 * Dispatches to the wrapped signal and then to the subscribed clients.
+	 * 
+	 * @see jsignal.SignalServer#expose(int, ISignalOwner, Class...)
+	 */
+	static final class ExposedSignal extends ForwardingSignal {
+		final SignalServer server;
+		final List<Connection> subscribers = new CopyOnWriteArrayList<Connection>();
+		
+		ExposedSignal(SignalServer server, int signalId, ISignalOwner signal, Class<?>[] params, Codec<Object>[] codecs) {
+			super(signalId, signal, params, codecs);
+			this.server = server;
+		}
+		
+		@Override
+		void forward(Object[] args) {
+			if (!subscribers.isEmpty()) {
+				server.broadcast(this, args);
+			}
+		}
+	}
+}
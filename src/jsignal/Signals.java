@@ -2,6 +2,10 @@
 
 package jsignal;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Utility class which contains static methods to operate on signal instances.
  * Notably, it can create wrappers to existing signals to add functionality.
@@ -28,6 +32,179 @@ public class Signals {
 	public static ISignalOwner synchronizedSignal(ISignalOwner signal) {
 		return new SynchronizedSignal(signal);
 	}
+	
+	/**
+	 * Starts a chain of operators on a typed signal.  The operators are fused into a
+	 * single listener on the source, which is only added while the end of the chain
+	 * has listeners.
+	 * 
+	 * <pre>{@code
+	 * Signals.from(prices).filter(p -> p > 0).map(p -> p * rate).add(display::show);
+	 * }</pre>
+	 * 
+	 * @param source the signal to derive values from
+	 * @return a derived signal dispatching the values of the source
+	 * @see jsignal.DerivedSignal
+	 */
+	public static <T> DerivedSignal<T> from(Signal1<T> source) {
+		return DerivedSignal.from(source);
+	}
+	
+	/**
+	 * Returns the scheduler shared by time-based wrappers and scheduled dispatches created
+	 * without one.  It is a {@link TimerWheel} with a one millisecond tick, which runs
+	 * every task on a single daemon thread started when first needed.
+	 * 
+	 * @return the shared scheduler
+	 */
+	public static IScheduler sharedScheduler() {
+		return SharedScheduler.INSTANCE;
+	}
+	
+	/**
+	 * Creates a debounced signal from the given signal.  Dispatches are held back until
+	 * none has been made for a whole window, then the latest one is dispatched on the
+	 * scheduler's thread.
+	 * 
+	 * @param signal the signal to dispatch to
+	 * @param window the quiet period which must pass before dispatching
+	 * @param unit the unit of the window
+	 * @param scheduler the scheduler measuring the window and running the dispatch
+	 * @return a debounced signal that wraps the original signal
+	 */
+	public static ISignalOwner debounce(ISignalOwner signal, long window, TimeUnit unit, IScheduler scheduler) {
+		return new DebouncedSignal(signal, scheduler, window, unit);
+	}
+	
+	/**
+	 * @see jsignal.Signals#debounce(ISignalOwner, long, TimeUnit, IScheduler)
+	 */
+	public static ISignalOwner debounce(ISignalOwner signal, long window, TimeUnit unit) {
+		return debounce(signal, window, unit, sharedScheduler());
+	}
+	
+	/**
+	 * Creates a throttled signal from the given signal, which dispatches at most once per
+	 * window.
+	 * 
+	 * @param signal the signal to dispatch to
+	 * @param window the minimum time between dispatches
+	 * @param unit the unit of the window
+	 * @param leading if the first dispatch of a window goes through immediately
+	 * @param trailing if the latest dispatch held back during a window goes through when it ends
+	 * @param scheduler the scheduler measuring the window and running trailing dispatches
+	 * @return a throttled signal that wraps the original signal
+	 * @throws IllegalArgumentException if neither leading nor trailing dispatches are enabled
+	 */
+	public static ISignalOwner throttle(ISignalOwner signal, long window, TimeUnit unit, boolean leading, boolean trailing, IScheduler scheduler) {
+		return new ThrottledSignal(signal, scheduler, window, unit, leading, trailing);
+	}
+	
+	/**
+	 * @see jsignal.Signals#throttle(ISignalOwner, long, TimeUnit, boolean, boolean, IScheduler)
+	 */
+	public static ISignalOwner throttle(ISignalOwner signal, long window, TimeUnit unit, boolean leading, boolean trailing) {
+		return throttle(signal, window, unit, leading, trailing, sharedScheduler());
+	}
+	
+	/**
+	 * Creates a sampled signal from the given signal, which dispatches the latest
+	 * arguments once per period on the scheduler's thread, skipping periods without any
+	 * dispatch.
+	 * 
+	 * @param signal the signal to dispatch to
+	 * @param period the sampling period
+	 * @param unit the unit of the period
+	 * @param scheduler the scheduler measuring the period and running the dispatches
+	 * @return a sampled signal that wraps the original signal
+	 */
+	public static ISignalOwner sample(ISignalOwner signal, long period, TimeUnit unit, IScheduler scheduler) {
+		return new SampledSignal(signal, scheduler, period, unit);
+	}
+	
+	/**
+	 * @see jsignal.Signals#sample(ISignalOwner, long, TimeUnit, IScheduler)
+	 */
+	public static ISignalOwner sample(ISignalOwner signal, long period, TimeUnit unit) {
+		return sample(signal, period, unit, sharedScheduler());
+	}
+	
+	/**
+	 * Dispatches to a signal once, after a delay, on the scheduler's thread.  The signal
+	 * must be safe to dispatch from that thread, for example a synchronized signal.
+	 * Exceptions thrown by the dispatch are logged to the <code>"com.paulm.jsignal"</code> Logger.
+	 * 
+	 * @param scheduler the scheduler measuring the delay and running the dispatch
+	 * @param signal the signal to dispatch to
+	 * @param delay the delay before dispatching
+	 * @param unit the unit of the delay
+	 * @param args the arguments to dispatch with
+	 * @return a handle which cancels the dispatch
+	 */
+	public static ITimeout dispatchAfter(IScheduler scheduler, IDispatcher signal, long delay, TimeUnit unit, Object... args) {
+		return ScheduledDispatch.after(scheduler, signal, delay, unit, args);
+	}
+	
+	/**
+	 * @see jsignal.Signals#dispatchAfter(IScheduler, IDispatcher, long, TimeUnit, Object...)
+	 */
+	public static ITimeout dispatchAfter(IDispatcher signal, long delay, TimeUnit unit, Object... args) {
+		return dispatchAfter(sharedScheduler(), signal, delay, unit, args);
+	}
+	
+	/**
+	 * Dispatches to a signal repeatedly, on the scheduler's thread, until cancelled.
+	 * Dispatches are timed from the first one, so they do not drift.
+	 * 
+	 * @param scheduler the scheduler measuring the period and running the dispatches
+	 * @param signal the signal to dispatch to
+	 * @param initialDelay the delay before the first dispatch
+	 * @param period the time between the start of each dispatch and the next
+	 * @param unit the unit of the delay and the period
+	 * @param args the arguments to dispatch with
+	 * @return a handle which cancels the remaining dispatches
+	 * @throws IllegalArgumentException if the period is not positive
+	 * @see jsignal.Signals#dispatchAfter(IScheduler, IDispatcher, long, TimeUnit, Object...)
+	 */
+	public static ITimeout dispatchAtFixedRate(IScheduler scheduler, IDispatcher signal, long initialDelay, long period, TimeUnit unit, Object... args) {
+		return ScheduledDispatch.atFixedRate(scheduler, signal, initialDelay, period, unit, args);
+	}
+	
+	/**
+	 * @see jsignal.Signals#dispatchAtFixedRate(IScheduler, IDispatcher, long, long, TimeUnit, Object...)
+	 */
+	public static ITimeout dispatchAtFixedRate(IDispatcher signal, long initialDelay, long period, TimeUnit unit, Object... args) {
+		return dispatchAtFixedRate(sharedScheduler(), signal, initialDelay, period, unit, args);
+	}
+	
+	/**
+	 * Creates a publisher from the given signal, which passes its dispatches on to
+	 * <code>Flow</code> subscribers as argument arrays, honouring their demand.
+	 * 
+	 * @param signal the signal to dispatch to
+	 * @param capacity the number of dispatches queued per subscriber
+	 * @param policy what to do with a dispatch when a subscriber's queue is full
+	 * @param executor the executor delivering dispatches to subscribers
+	 * @return a publisher that wraps the original signal
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 * @see jsignal.SignalPublisher
+	 */
+	public static SignalPublisher publisher(ISignalOwner signal, int capacity, OverflowPolicy policy, Executor executor) {
+		return new SignalPublisher(signal, capacity, policy, executor);
+	}
+	
+	/**
+	 * Delivers to subscribers on the common fork join pool.
+	 * 
+	 * @see jsignal.Signals#publisher(ISignalOwner, int, OverflowPolicy, Executor)
+	 */
+	public static SignalPublisher publisher(ISignalOwner signal, int capacity, OverflowPolicy policy) {
+		return publisher(signal, capacity, policy, ForkJoinPool.commonPool());
+	}
+	
+	private static final class SharedScheduler {
+		static final IScheduler INSTANCE = new TimerWheel(1, TimeUnit.MILLISECONDS, 512);
+	}
 }
 
 class SynchronizedSignal implements ISignalOwner {
@@ -2,29 +2,72 @@
 
 package jsignal;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 
 class Slot implements ISlot {
 	private final Object listener;
-	private final Method delegate;
+	private final Reference<Object> listenerReference;
+	private final Delegate delegate;
+	private final MethodHandle invoker;
 	private final boolean addOnce;
+	private final int hashCode;
 	
-	public Slot(Object listener, Method delegate, boolean addOnce) {
-		this.listener = listener;
+	public Slot(Object listener, Delegate delegate, boolean addOnce) {
+		this(listener, delegate, addOnce, ReferenceStrength.STRONG, null);
+	}
+	
+	/**
+	 * @param strength how strongly this slot refers to its listener
+	 * @param queue the queue weak and soft listener references are enqueued on once collected, may be null
+	 */
+	public Slot(Object listener, Delegate delegate, boolean addOnce, ReferenceStrength strength, ReferenceQueue<Object> queue) {
+		switch (strength) {
+		case WEAK:
+			this.listener = null;
+			this.listenerReference = new WeakListenerReference(listener, queue, this);
+			break;
+		case SOFT:
+			this.listener = null;
+			this.listenerReference = new SoftListenerReference(listener, queue, this);
+			break;
+		default:
+			this.listener = listener;
+			this.listenerReference = null;
+		}
 		this.delegate = delegate;
+		this.invoker = delegate.getInvoker();
 		this.addOnce = addOnce;
+		this.hashCode = listener.hashCode();
 	}
 	
+	/**
+	 * @return the listener, or null if it was weakly or softly referenced and has been collected
+	 */
 	@Override
 	public Object getListener() {
-		return listener;
+		return listenerReference == null ? listener : listenerReference.get();
 	}
 	
 	@Override
 	public Method getDelegate() {
+		return delegate.getMethod();
+	}
+	
+	@Override
+	public Delegate getCallback() {
 		return delegate;
 	}
 	
+	@Override
+	public MethodHandle getInvoker() {
+		return invoker;
+	}
+	
 	@Override
 	public boolean getAddOnce() {
 		return addOnce;
@@ -32,7 +75,8 @@ class Slot implements ISlot {
 	
 	@Override
 	public int hashCode() {
-		return listener.hashCode();
+		// fixed at construction so the slot can still be found in hashed collections once its listener is collected
+		return hashCode;
 	}
 	
 	@Override
@@ -40,6 +84,44 @@ class Slot implements ISlot {
 		if (obj instanceof ISlot) {
 			return obj == this;
 		}
-		return listener.equals(obj);
+		Object listener = getListener();
+		return listener != null && listener.equals(obj);
+	}
+	
+	/**
+	 * A listener reference that knows the slot it belongs to, so the slot can be
+	 * expunged once the reference is enqueued.
+	 */
+	interface ListenerReference {
+		
+		public ISlot getSlot();
+	}
+	
+	private static final class WeakListenerReference extends WeakReference<Object> implements ListenerReference {
+		private final ISlot slot;
+		
+		WeakListenerReference(Object listener, ReferenceQueue<Object> queue, ISlot slot) {
+			super(listener, queue);
+			this.slot = slot;
+		}
+		
+		@Override
+		public ISlot getSlot() {
+			return slot;
+		}
+	}
+	
+	private static final class SoftListenerReference extends SoftReference<Object> implements ListenerReference {
+		private final ISlot slot;
+		
+		SoftListenerReference(Object listener, ReferenceQueue<Object> queue, ISlot slot) {
+			super(listener, queue);
+			this.slot = slot;
+		}
+		
+		@Override
+		public ISlot getSlot() {
+			return slot;
+		}
 	}
 }
@@ -0,0 +1,63 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches at most once per window.  With <code>leading</code>, the first dispatch of
+ * a window goes through immediately, on the caller's thread.  With <code>trailing</code>,
+ * the latest dispatch held back during a window goes through when it ends, which opens
+ * the next window.
+ * 
+ * @see jsignal.Signals#throttle(ISignalOwner, long, TimeUnit, boolean, boolean, IScheduler)
+ */
+final class ThrottledSignal extends TimedSignal {
+	private final boolean leading;
+	private final boolean trailing;
+	private final Runnable close = new Runnable() {
+		@Override
+		public void run() {
+			close();
+		}
+	};
+	private Object[] pending;
+	private boolean hasPending;
+	private ITimeout timeout;
+	
+	ThrottledSignal(ISignalOwner signal, IScheduler scheduler, long window, TimeUnit unit, boolean leading, boolean trailing) {
+		super(signal, scheduler, window, unit);
+		if (!leading && !trailing) {
+			throw new IllegalArgumentException("A throttle must dispatch on the leading edge, the trailing edge or both");
+		}
+		this.leading = leading;
+		this.trailing = trailing;
+	}
+	
+	@Override
+	public synchronized void dispatch(Object... args) {
+		if (timeout == null) {
+			timeout = schedule(close, windowNanos);
+			if (leading) {
+				signal.dispatch(args);
+				return;
+			}
+		}
+		if (trailing) {
+			pending = args;
+			hasPending = true;
+		}
+	}
+	
+	private synchronized void close() {
+		timeout = null;
+		if (!hasPending) {
+			return;
+		}
+		Object[] args = pending;
+		pending = null;
+		hasPending = false;
+		timeout = schedule(close, windowNanos);
+		emit(args);
+	}
+}
@@ -0,0 +1,82 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Base class of the wrappers which limit how often a signal is dispatched.  Listener
+ * operations are passed straight to the wrapped signal; every method synchronizes on
+ * the wrapper, including dispatches made by scheduled tasks.
+ * 
+ * Dispatches made by scheduled tasks have no caller to throw to, so their exceptions
+ * are logged to the <code>"com.paulm.jsignal"</code> Logger.
+ */
+abstract class TimedSignal implements ISignalOwner {
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	
+	final ISignalOwner signal;
+	final IScheduler scheduler;
+	final long windowNanos;
+	
+	TimedSignal(ISignalOwner signal, IScheduler scheduler, long window, TimeUnit unit) {
+		if (signal == null || scheduler == null) {
+			throw new NullPointerException();
+		}
+		if (window <= 0) {
+			throw new IllegalArgumentException("Window must be positive: "+window);
+		}
+		this.signal = signal;
+		this.scheduler = scheduler;
+		this.windowNanos = unit.toNanos(window);
+	}
+	
+	@Override
+	public synchronized Object add(Object listener, String callback, boolean addOnce) {
+		return signal.add(listener, callback, addOnce);
+	}
+	
+	@Override
+	public synchronized boolean remove(Object listener) {
+		return signal.remove(listener);
+	}
+	
+	@Override
+	public synchronized boolean containsListener(Object listener) {
+		return signal.containsListener(listener);
+	}
+	
+	@Override
+	public synchronized int numListeners() {
+		return signal.numListeners();
+	}
+	
+	@Override
+	public synchronized void removeAll() {
+		signal.removeAll();
+	}
+	
+	/**
+	 * @param task the task to run
+	 * @param delayNanos the delay in nanoseconds
+	 * @return the scheduled task
+	 */
+	final ITimeout schedule(Runnable task, long delayNanos) {
+		return scheduler.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Dispatches to the wrapped signal from a scheduled task.
+	 * 
+	 * @param args the arguments to dispatch with
+	 */
+	final void emit(Object[] args) {
+		try {
+			signal.dispatch(args);
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.WARNING, "Scheduled dispatch failed", e);
+		}
+	}
+}
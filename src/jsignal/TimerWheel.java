@@ -0,0 +1,255 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A scheduler backed by a hierarchical hashed timer wheel, for large numbers of
+ * pending timers such as timeouts and retries.
+ * 
+ * Each level of the wheel is a ring of buckets, the first measuring single ticks and
+ * each further level measuring whole rotations of the level below.  A task is linked
+ * into the bucket of the lowest level whose range covers its delay, and moves down a
+ * level each time the bucket holding it comes round, so scheduling and cancelling are
+ * O(1) whatever the number of pending tasks.  Tasks run up to one tick after their
+ * time, on a single daemon thread which is started by the first task and parks while
+ * nothing is pending.  Exceptions thrown by tasks are logged to the
+ * <code>"com.paulm.jsignal"</code> Logger.
+ */
+public final class TimerWheel implements IScheduler {
+	private static final Logger LOGGER = Logger.getLogger("com.paulm.jsignal");
+	private static final int LEVELS = 6;
+	
+	private final long tickNanos;
+	private final int bits;
+	private final int mask;
+	private final LongSupplier clock;
+	private final long startNanos;
+	/** The sentinel of each bucket's circular list, by level and then index. */
+	private final Timer[][] buckets;
+	private long currentTick;
+	private int pending;
+	private Thread worker;
+	private boolean idle;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param tickDuration the resolution of the wheel
+	 * @param unit the unit of the tick duration
+	 * @param wheelSize the number of buckets per level, rounded up to a power of two
+	 */
+	public TimerWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+		this(tickDuration, unit, wheelSize, null);
+	}
+	
+	/**
+	 * @param clock the clock in nanoseconds, or null for <code>System.nanoTime()</code> and a worker thread;
+	 * with a clock, tasks only run when <code>advance</code> is called
+	 */
+	TimerWheel(long tickDuration, TimeUnit unit, int wheelSize, LongSupplier clock) {
+		if (tickDuration <= 0 || wheelSize <= 1) {
+			throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+		}
+		this.tickNanos = unit.toNanos(tickDuration);
+		this.bits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+		this.mask = (1 << bits) - 1;
+		this.clock = clock;
+		this.startNanos = nanoTime();
+		this.buckets = new Timer[LEVELS][1 << bits];
+		for (Timer[] level : buckets) {
+			for (int i = 0; i < level.length; i++) {
+				level[i] = new Timer(null, 0);
+			}
+		}
+	}
+	
+	@Override
+	public long nanoTime() {
+		return clock == null ? System.nanoTime() : clock.getAsLong();
+	}
+	
+	@Override
+	public ITimeout schedule(Runnable task, long delay, TimeUnit unit) {
+		if (task == null) {
+			throw new NullPointerException();
+		}
+		long deadline = nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+		// round up, a task never runs early
+		Timer timer = new Timer(task, (deadline + tickNanos - 1) / tickNanos);
+		synchronized (this) {
+			// the current tick has already been processed
+			timer.deadlineTick = Math.max(timer.deadlineTick, currentTick + 1);
+			insert(timer);
+			pending++;
+			if (clock == null) {
+				if (worker == null) {
+					worker = new Thread(new Runnable() {
+						@Override
+						public void run() {
+							work();
+						}
+					}, "jsignal-timer-wheel");
+					worker.setDaemon(true);
+					worker.start();
+				} else if (idle) {
+					idle = false;
+					LockSupport.unpark(worker);
+				}
+			}
+		}
+		return timer;
+	}
+	
+	/**
+	 * @return the number of tasks waiting to run
+	 */
+	public synchronized int numPending() {
+		return pending;
+	}
+	
+	/**
+	 * Runs every task due by the clock's current time, on the calling thread.
+	 */
+	void advance() {
+		long targetTick = (nanoTime() - startNanos) / tickNanos;
+		while (true) {
+			Timer due;
+			synchronized (this) {
+				if (currentTick >= targetTick) {
+					return;
+				}
+				if (pending == 0) {
+					// nothing can fall due, so skip the empty ticks
+					currentTick = targetTick;
+					return;
+				}
+				currentTick++;
+				due = tick();
+			}
+			run(due);
+		}
+	}
+	
+	private void work() {
+		while (true) {
+			advance();
+			long nextTickNanos;
+			synchronized (this) {
+				idle = pending == 0;
+				nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+			}
+			if (idle) {
+				LockSupport.park(this);
+			} else {
+				LockSupport.parkNanos(this, nextTickNanos - nanoTime());
+			}
+		}
+	}
+	
+	/**
+	 * Processes the current tick, moving timers down from the levels whose bucket has
+	 * come round and unlinking the due timers.
+	 * 
+	 * @return the due timers, chained through <code>next</code>
+	 */
+	private Timer tick() {
+		for (int level = LEVELS - 1; level > 0; level--) {
+			if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+				Timer sentinel = buckets[level][(int) (currentTick >>> (bits * level)) & mask];
+				Timer timer = sentinel.next;
+				sentinel.next = sentinel.previous = sentinel;
+				while (timer != sentinel) {
+					Timer next = timer.next;
+					insert(timer);
+					timer = next;
+				}
+			}
+		}
+		Timer sentinel = buckets[0][(int) currentTick & mask];
+		Timer due = null;
+		Timer timer = sentinel.next;
+		while (timer != sentinel) {
+			Timer next = timer.next;
+			if (timer.deadlineTick <= currentTick) {
+				unlink(timer);
+				timer.next = due;
+				timer.bucket = null;
+				due = timer;
+				pending--;
+			}
+			timer = next;
+		}
+		return due;
+	}
+	
+	private void run(Timer due) {
+		while (due != null) {
+			Timer next = due.next;
+			due.next = null;
+			try {
+				due.task.run();
+			} catch (Throwable e) {
+				// the wheel is shared, so one task must not stop every other from running
+				LOGGER.log(Level.WARNING, "Scheduled task failed", e);
+			}
+			due = next;
+		}
+	}
+	
+	private void insert(Timer timer) {
+		long deadlineTick = timer.deadlineTick;
+		long delta = deadlineTick - currentTick;
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= 1L << (bits * (level + 1))) {
+			level++;
+		}
+		Timer sentinel = buckets[level][(int) (deadlineTick >>> (bits * level)) & mask];
+		timer.previous = sentinel.previous;
+		timer.next = sentinel;
+		sentinel.previous.next = timer;
+		sentinel.previous = timer;
+		timer.bucket = sentinel;
+	}
+	
+	private static void unlink(Timer timer) {
+		timer.previous.next = timer.next;
+		timer.next.previous = timer.previous;
+		timer.previous = null;
+	}
+	
+	private final class Timer implements ITimeout {
+		final Runnable task;
+		long deadlineTick;
+		Timer previous;
+		Timer next;
+		/** The sentinel of the bucket holding this timer, or null once it has run or been cancelled. */
+		Timer bucket;
+		
+		Timer(Runnable task, long deadlineTick) {
+			this.task = task;
+			this.deadlineTick = deadlineTick;
+			this.previous = this;
+			this.next = this;
+		}
+		
+		@Override
+		public boolean cancel() {
+			synchronized (TimerWheel.this) {
+				if (bucket == null) {
+					return false;
+				}
+				unlink(this);
+				next = null;
+				bucket = null;
+				pending--;
+				return true;
+			}
+		}
+	}
+}
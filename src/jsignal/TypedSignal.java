@@ -0,0 +1,224 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Arrays;
+
+/**
+ * The TypedSignal class is the base of the arity specific signals <code>Signal0</code>
+ * through <code>Signal4</code>.  Listeners are functional interfaces that are called
+ * directly, so a typed dispatch neither allocates an argument array nor uses reflection.
+ * 
+ * Typed signals still honour the <code>ISignalOwner</code> contract: reflective listeners
+ * can be added by callback name, and the signal can be dispatched with an argument array,
+ * so typed signals may be wrapped by the methods in <code>Signals</code>.
+ * 
+ * Listeners are kept in an array that is copied when a listener is added or removed, so
+ * listeners may safely add or remove listeners while the signal is dispatching.
+ * 
+ * @param <L> the listener type
+ * @see jsignal.Signal
+ */
+public abstract class TypedSignal <L> implements ISignalOwner {
+	private static final TypedSlot<?>[] EMPTY = new TypedSlot<?>[0];
+	
+	protected final Class<?>[] params;
+	private TypedSlot<L>[] slots = empty();
+	
+	TypedSignal(Class<?>... params) {
+		this.params = params;
+	}
+	
+	/**
+	 * Registers a typed listener to this signal.  If an equal listener is already
+	 * registered it is replaced.
+	 * 
+	 * @param listener the listener to add
+	 * @param addOnce if true, once this signal has dispatched the listener is removed
+	 * @return the replaced listener, or null if no such listener was replaced
+	 */
+	public Object add(L listener, boolean addOnce) {
+		if (listener == null) {
+			throw new NullPointerException();
+		}
+		return addSlot(new TypedSlot<L>(listener, listener, addOnce));
+	}
+	
+	/**
+	 * Registers a typed listener to this signal.  By default, addOnce is <b>false</b>.
+	 * 
+	 * @param listener the listener to add
+	 * @return the replaced listener, or null if no such listener was replaced
+	 * @see jsignal.TypedSignal#add(Object, boolean)
+	 */
+	public Object add(L listener) {
+		return add(listener, false);
+	}
+	
+	/**
+	 * Registers a reflective listener to this signal.  The callback is resolved against the
+	 * parameter types this signal was constructed with, and adapted to the typed listener type.
+	 * 
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String, boolean)
+	 */
+	@Override
+	public Object add(Object listener, String callback, boolean addOnce) {
+		Delegate delegate = Delegate.resolve(listener, callback, params);
+		return addSlot(new TypedSlot<L>(listener, adapt(new Slot(listener, delegate, addOnce)), addOnce));
+	}
+	
+	/**
+	 * @see jsignal.Signal#add(java.lang.Object, java.lang.String)
+	 */
+	public Object add(Object listener, String callback) {
+		return add(listener, callback, false);
+	}
+	
+	/**
+	 * @see jsignal.Signal#remove(java.lang.Object)
+	 */
+	@Override
+	public boolean remove(Object listener) {
+		int index = indexOf(listener);
+		if (index < 0) {
+			return false;
+		}
+		slots = without(slots, index);
+		return true;
+	}
+	
+	/**
+	 * @see jsignal.Signal#removeAll()
+	 */
+	@Override
+	public void removeAll() {
+		slots = empty();
+	}
+	
+	/**
+	 * Dispatches an argument array to all listeners.  Prefer the typed <code>dispatch</code>
+	 * method of the subclass, which does not require an array.
+	 * 
+	 * @see jsignal.Signal#dispatch(java.lang.Object[])
+	 */
+	@Override
+	public void dispatch(Object... args) {
+		if (slots.length == 0) {
+			return;
+		}
+		Signal.checkArgs(params, args);
+		dispatchArgs(args);
+	}
+	
+	/**
+	 * @see jsignal.Signal#containsListener(java.lang.Object)
+	 */
+	@Override
+	public boolean containsListener(Object listener) {
+		return indexOf(listener) >= 0;
+	}
+	
+	/**
+	 * @see jsignal.Signal#numListeners()
+	 */
+	@Override
+	public int numListeners() {
+		return slots.length;
+	}
+	
+	/**
+	 * Adapts a reflective slot to the listener type of this signal.
+	 * 
+	 * @param slot the slot to adapt
+	 * @return a listener which invokes the slot
+	 */
+	abstract L adapt(ISlot slot);
+	
+	/**
+	 * Dispatches already verified arguments to the typed listeners.
+	 * 
+	 * @param args the arguments, matching the parameter types of this signal
+	 */
+	abstract void dispatchArgs(Object[] args);
+	
+	/**
+	 * @return the current listeners, which must not be modified by the caller
+	 */
+	final TypedSlot<L>[] slots() {
+		return slots;
+	}
+	
+	/**
+	 * Must be called by subclasses before invoking each slot, so that addOnce
+	 * slots are removed before their listener runs.
+	 * 
+	 * @param slot the slot about to be invoked
+	 * @return false if the slot must not be invoked, because it is an addOnce slot
+	 * that a nested dispatch has already fired
+	 */
+	final boolean fire(TypedSlot<L> slot) {
+		if (slot.getAddOnce()) {
+			TypedSlot<L>[] current = slots;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == slot) {
+					slots = without(current, i);
+					return true;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Invokes a reflective slot, wrapping the argument array for the adapters created by <code>adapt</code>.
+	 * 
+	 * @param slot the slot to invoke
+	 * @param args the arguments to invoke it with
+	 */
+	static void invoke(ISlot slot, Object... args) {
+		Signal.invoke(slot, slot.getListener(), args);
+	}
+	
+	private Object addSlot(TypedSlot<L> newSlot) {
+		int index = indexOf(newSlot.getKey());
+		TypedSlot<L>[] current = slots;
+		if (index < 0) {
+			TypedSlot<L>[] next = Arrays.copyOf(current, current.length + 1);
+			next[current.length] = newSlot;
+			slots = next;
+			return null;
+		}
+		TypedSlot<L>[] next = current.clone();
+		next[index] = newSlot;
+		slots = next;
+		return current[index].getKey();
+	}
+	
+	private int indexOf(Object listener) {
+		if (listener == null) {
+			return -1;
+		}
+		TypedSlot<L>[] current = slots;
+		for (int i = 0; i < current.length; i++) {
+			if (listener.equals(current[i].getKey())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private static <L> TypedSlot<L>[] without(TypedSlot<L>[] slots, int index) {
+		if (slots.length == 1) {
+			return empty();
+		}
+		TypedSlot<L>[] next = Arrays.copyOf(slots, slots.length - 1);
+		System.arraycopy(slots, index + 1, next, index, next.length - index);
+		return next;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <L> TypedSlot<L>[] empty() {
+		return (TypedSlot<L>[]) EMPTY;
+	}
+}
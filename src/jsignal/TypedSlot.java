@@ -0,0 +1,30 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+final class TypedSlot <L> {
+	private final Object key;
+	private final L listener;
+	private final boolean addOnce;
+	
+	public TypedSlot(Object key, L listener, boolean addOnce) {
+		this.key = key;
+		this.listener = listener;
+		this.addOnce = addOnce;
+	}
+	
+	/**
+	 * @return the object this slot was registered with, either the typed listener itself or a reflective listener
+	 */
+	public Object getKey() {
+		return key;
+	}
+	
+	public L getListener() {
+		return listener;
+	}
+	
+	public boolean getAddOnce() {
+		return addOnce;
+	}
+}
@@ -0,0 +1,230 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a <code>jsignal.ListenerAdapter</code> for every class with
+ * <code>jsignal.SignalHandler</code> methods, and registers the adapters in
+ * <code>META-INF/services/jsignal.ListenerAdapter</code>.
+ * 
+ * The adapter for <code>com.example.Outer.Listener</code> is named
+ * <code>com.example.Outer_Listener_SignalAdapter</code>, which is the name the runtime
+ * looks the adapter up by.  Handler methods must be
+ * public instance methods, and their class must not be private.
+ */
+@SupportedAnnotationTypes("jsignal.SignalHandler")
+public class SignalHandlerProcessor extends AbstractProcessor {
+	private static final String SERVICE_FILE = "META-INF/services/jsignal.ListenerAdapter";
+	private static final String ADAPTER_SUFFIX = "_SignalAdapter";
+	
+	private final Set<String> adapters = new TreeSet<String>();
+	
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+	
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		if (round.processingOver()) {
+			if (!adapters.isEmpty()) {
+				writeServiceFile();
+			}
+			return false;
+		}
+		Map<TypeElement, List<ExecutableElement>> handlers = new LinkedHashMap<TypeElement, List<ExecutableElement>>();
+		for (TypeElement annotation : annotations) {
+			for (Element element : round.getElementsAnnotatedWith(annotation)) {
+				ExecutableElement method = (ExecutableElement) element;
+				if (!isValid(method)) {
+					continue;
+				}
+				TypeElement type = (TypeElement) method.getEnclosingElement();
+				List<ExecutableElement> methods = handlers.get(type);
+				if (methods == null) {
+					methods = new ArrayList<ExecutableElement>();
+					handlers.put(type, methods);
+				}
+				methods.add(method);
+			}
+		}
+		for (Map.Entry<TypeElement, List<ExecutableElement>> entry : handlers.entrySet()) {
+			writeAdapter(entry.getKey(), entry.getValue());
+		}
+		return false;
+	}
+	
+	private boolean isValid(ExecutableElement method) {
+		Messager messager = processingEnv.getMessager();
+		Set<Modifier> modifiers = method.getModifiers();
+		if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@SignalHandler methods must be public instance methods", method);
+			return false;
+		}
+		if (method.getReturnType().getKind() != TypeKind.VOID) {
+			messager.printMessage(Diagnostic.Kind.ERROR, "@SignalHandler methods must return void", method);
+			return false;
+		}
+		for (Element enclosing = method.getEnclosingElement(); enclosing.getKind() != ElementKind.PACKAGE; enclosing = enclosing.getEnclosingElement()) {
+			if (enclosing.getModifiers().contains(Modifier.PRIVATE) || !(enclosing instanceof TypeElement)) {
+				messager.printMessage(Diagnostic.Kind.ERROR, "@SignalHandler methods must be declared in a non-private, non-local class", method);
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void writeAdapter(TypeElement type, List<ExecutableElement> methods) {
+		String packageName = packageOf(type).getQualifiedName().toString();
+		String adapterName = flatName(type)+ADAPTER_SUFFIX;
+		String qualifiedName = packageName.isEmpty() ? adapterName : packageName+"."+adapterName;
+		String listenerType = processingEnv.getTypeUtils().erasure(type.asType()).toString();
+		StringBuilder names = new StringBuilder();
+		StringBuilder params = new StringBuilder();
+		StringBuilder cases = new StringBuilder();
+		for (int i = 0; i < methods.size(); i++) {
+			ExecutableElement method = methods.get(i);
+			String separator = i == 0 ? "" : ", ";
+			names.append(separator).append('"').append(method.getSimpleName()).append('"');
+			params.append(separator).append("{ ");
+			cases.append("\t\tcase ").append(i).append(":\n\t\t\ttarget.").append(method.getSimpleName()).append('(');
+			List<? extends VariableElement> parameters = method.getParameters();
+			for (int j = 0; j < parameters.size(); j++) {
+				String parameterType = processingEnv.getTypeUtils().erasure(parameters.get(j).asType()).toString();
+				params.append(j == 0 ? "" : ", ").append(parameterType).append(".class");
+				cases.append(j == 0 ? "" : ", ").append(argument(parameters.get(j).asType(), parameterType, j));
+			}
+			params.append(" }");
+			cases.append(");\n\t\t\treturn;\n");
+		}
+		try {
+			Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter();
+			try {
+				PrintWriter out = new PrintWriter(writer);
+				if (!packageName.isEmpty()) {
+					out.println("package "+packageName+";");
+					out.println();
+				}
+				out.println("@javax.annotation.processing.Generated(\""+getClass().getName()+"\")");
+				out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+				out.println("public final class "+adapterName+" extends jsignal.ListenerAdapter {");
+				out.println();
+				out.println("\tpublic "+adapterName+"() {");
+				out.println("\t\tsuper("+listenerType+".class, new String[] { "+names+" }, new Class<?>[][] { "+params+" });");
+				out.println("\t}");
+				out.println();
+				out.println("\t@Override");
+				out.println("\tpublic void invoke(int index, Object listener, Object[] args) throws Throwable {");
+				out.println("\t\t"+listenerType+" target = ("+listenerType+") listener;");
+				out.println("\t\tswitch (index) {");
+				out.print(cases);
+				out.println("\t\tdefault:");
+				out.println("\t\t\tthrow new IndexOutOfBoundsException(String.valueOf(index));");
+				out.println("\t\t}");
+				out.println("\t}");
+				out.println("}");
+				out.flush();
+			} finally {
+				writer.close();
+			}
+			adapters.add(qualifiedName);
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write "+qualifiedName+": "+e, type);
+		}
+	}
+	
+	private static String argument(TypeMirror type, String erasure, int index) {
+		String arg = "args["+index+"]";
+		if (type.getKind().isPrimitive()) {
+			return erasure+"Arg("+arg+")";
+		}
+		if ("java.lang.Object".equals(erasure)) {
+			return arg;
+		}
+		return "("+erasure+") "+arg;
+	}
+	
+	private void writeServiceFile() {
+		Filer filer = processingEnv.getFiler();
+		try {
+			// keep the adapters of classes compiled earlier when compiling incrementally
+			FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), StandardCharsets.UTF_8));
+			try {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (!line.trim().isEmpty()) {
+						adapters.add(line.trim());
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException ignored) {
+			// no earlier service file
+		}
+		try {
+			FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+			Writer writer = file.openWriter();
+			try {
+				for (String adapter : adapters) {
+					writer.write(adapter);
+					writer.write('\n');
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write "+SERVICE_FILE+": "+e);
+		}
+	}
+	
+	private static PackageElement packageOf(Element element) {
+		while (element.getKind() != ElementKind.PACKAGE) {
+			element = element.getEnclosingElement();
+		}
+		return (PackageElement) element;
+	}
+	
+	private static String flatName(TypeElement type) {
+		String name = type.getSimpleName().toString();
+		Element enclosing = type.getEnclosingElement();
+		while (enclosing instanceof TypeElement) {
+			name = enclosing.getSimpleName()+"_"+name;
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name;
+	}
+}
@@ -0,0 +1,117 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class AsyncSignalTest extends TestCase {
+	private static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+	
+	public static class BlockingListener {
+		public final CountDownLatch release = new CountDownLatch(1);
+		
+		public void callback() throws InterruptedException {
+			release.await();
+		}
+	}
+
+	@Test
+	public void test_dispatch_completes_future() throws Exception {
+		AsyncSignal signal = new AsyncSignal(DIRECT, int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		CompletableFuture<Void> future = signal.dispatchAsync(1);
+		assertTrue(future.isDone());
+		future.get();
+		verify(mockListener, times(1)).callback(1);
+	}
+	
+	@Test
+	public void test_dispatch_does_not_wait_for_listeners() throws Exception {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			AsyncSignal signal = new AsyncSignal(executor);
+			BlockingListener listener = new BlockingListener();
+			signal.add(listener, "callback");
+			CompletableFuture<Void> future = signal.dispatchAsync();
+			assertFalse(future.isDone());
+			listener.release.countDown();
+			future.get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void test_failures_are_aggregated() throws Exception {
+		AsyncSignal signal = new AsyncSignal(DIRECT);
+		SignalListener failingFirst = mock(SignalListener.class);
+		SignalListener failingSecond = mock(SignalListener.class);
+		SignalListener succeeding = mock(SignalListener.class);
+		doThrow(new IllegalStateException()).when(failingFirst).callback();
+		doThrow(new IllegalStateException()).when(failingSecond).callback();
+		signal.add(failingFirst, "callback");
+		signal.add(failingSecond, "callback");
+		signal.add(succeeding, "callback");
+		try {
+			signal.dispatchAsync().get();
+			fail("Expected exception was not thrown");
+		} catch (ExecutionException expected) {
+			assertTrue(expected.getCause() instanceof SignalException);
+			assertEquals(2, expected.getCause().getSuppressed().length);
+		}
+		verify(succeeding, times(1)).callback();
+	}
+	
+	@Test
+	public void test_addOnce_only_fires_once() {
+		AsyncSignal signal = new AsyncSignal(DIRECT);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback", true);
+		signal.dispatch();
+		signal.dispatch();
+		verify(mockListener, times(1)).callback();
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_rejected_addOnce_listener_is_detached() {
+		AsyncSignal signal = new AsyncSignal(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new RejectedExecutionException();
+			}
+		});
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		signal.add(mock(SignalListener.class), "callback", true);
+		// the listener has metrics from an earlier run, which must be forgotten once it is removed
+		metrics.recordInvocation(signal.listenerMap.values().iterator().next(), 1, false);
+		assertTrue(signal.dispatchAsync().isCompletedExceptionally());
+		assertEquals(0, signal.numListeners());
+		assertTrue(metrics.snapshot().getListeners().isEmpty());
+	}
+}
@@ -0,0 +1,113 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import jsignal.test.SignalListener;
+
+public class BatchingSignalTest extends TestCase {
+
+	@Test
+	public void test_batch_is_delivered_when_full() {
+		BatchingSignal signal = new BatchingSignal(3, int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		signal.dispatch(1);
+		signal.dispatch(2);
+		verify(mockListener, never()).callback(any(Object[][].class));
+		assertEquals(2, signal.numBuffered());
+		signal.dispatch(3);
+		ArgumentCaptor<Object[][]> batch = ArgumentCaptor.forClass(Object[][].class);
+		verify(mockListener, times(1)).callback(batch.capture());
+		assertEquals(3, batch.getValue().length);
+		assertEquals(1, batch.getValue()[0][0]);
+		assertEquals(3, batch.getValue()[2][0]);
+		assertEquals(0, signal.numBuffered());
+	}
+	
+	@Test
+	public void test_flush_delivers_partial_batch() {
+		BatchingSignal signal = new BatchingSignal(10, int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback", true);
+		signal.dispatch(1);
+		signal.flush();
+		signal.flush();
+		ArgumentCaptor<Object[][]> batch = ArgumentCaptor.forClass(Object[][].class);
+		verify(mockListener, times(1)).callback(batch.capture());
+		assertEquals(1, batch.getValue().length);
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_run_to_completion_queues_dispatches_from_listeners() {
+		BatchingSignal signal = new BatchingSignal(1, int.class);
+		signal.setRunToCompletion(true);
+		Redispatcher listener = new Redispatcher(signal);
+		signal.add(listener, "callback");
+		signal.dispatch(1);
+		assertEquals(2, listener.batches);
+		assertEquals(1, listener.maxDepth);
+	}
+	
+	public static class Redispatcher {
+		private final IDispatcher signal;
+		int batches;
+		int depth;
+		int maxDepth;
+		
+		public Redispatcher(IDispatcher signal) {
+			this.signal = signal;
+		}
+		
+		public void callback(Object[][] batch) {
+			maxDepth = Math.max(maxDepth, ++depth);
+			if (batches++ == 0) {
+				signal.dispatch(2);
+			}
+			depth--;
+		}
+	}
+	
+	@Test
+	public void test_wrong_args_are_not_buffered() {
+		BatchingSignal signal = new BatchingSignal(10, int.class);
+		signal.add(mock(SignalListener.class), "callback");
+		try {
+			signal.dispatch("one");
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		assertEquals(0, signal.numBuffered());
+	}
+	
+	@Test
+	public void test_scheduler_flushes_idle_batch() {
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		try {
+			BatchingSignal signal = new BatchingSignal(10, 10, TimeUnit.MILLISECONDS, scheduler, int.class);
+			SignalListener mockListener = mock(SignalListener.class);
+			signal.add(mockListener, "callback");
+			signal.dispatch(1);
+			verify(mockListener, timeout(5000).times(1)).callback(any(Object[][].class));
+			assertEquals(0, signal.numBuffered());
+		} finally {
+			scheduler.shutdown();
+		}
+	}
+}
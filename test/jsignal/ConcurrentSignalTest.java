@@ -0,0 +1,107 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class ConcurrentSignalTest extends TestCase {
+
+	public static class CountingListener {
+		public final AtomicInteger count = new AtomicInteger();
+		
+		public void callback() {
+			count.incrementAndGet();
+		}
+	}
+	
+	@Test
+	public void test_one_param_dispatch() {
+		ConcurrentSignal signal = new ConcurrentSignal(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		signal.dispatch(1);
+		verify(mockListener, times(1)).callback(1);
+		assertTrue(signal.containsListener(mockListener));
+		assertEquals(1, signal.numListeners());
+	}
+	
+	@Test
+	public void test_listener_added_twice_doesnt_duplicate() {
+		ConcurrentSignal signal = new ConcurrentSignal();
+		SignalListener mockListener = mock(SignalListener.class);
+		assertNull(signal.add(mockListener, "callback"));
+		assertSame(mockListener, signal.add(mockListener, "callback"));
+		assertEquals(1, signal.numListeners());
+		signal.dispatch();
+		verify(mockListener, times(1)).callback();
+	}
+	
+	@Test
+	public void test_removed_listener_doesnt_fire() {
+		ConcurrentSignal signal = new ConcurrentSignal();
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		assertTrue(signal.remove(mockListener));
+		assertFalse(signal.remove(mockListener));
+		signal.dispatch();
+		verify(mockListener, never()).callback();
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_addOnce_only_fires_once() {
+		ConcurrentSignal signal = new ConcurrentSignal();
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback", true);
+		signal.dispatch();
+		signal.dispatch();
+		verify(mockListener, times(1)).callback();
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_addOnce_fires_once_under_concurrent_dispatch() throws InterruptedException {
+		final ConcurrentSignal signal = new ConcurrentSignal();
+		CountingListener once = new CountingListener();
+		CountingListener always = new CountingListener();
+		signal.add(once, "callback", true);
+		signal.add(always, "callback");
+		final int threads = 8;
+		final int dispatches = 1000;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(threads);
+		for (int i = 0; i < threads; i++) {
+			new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int j = 0; j < dispatches; j++) {
+							signal.dispatch();
+						}
+					} catch (InterruptedException ignored) {
+					} finally {
+						done.countDown();
+					}
+				}
+			}.start();
+		}
+		start.countDown();
+		done.await();
+		assertEquals(1, once.count.get());
+		assertEquals(threads * dispatches, always.count.get());
+		assertEquals(1, signal.numListeners());
+	}
+}
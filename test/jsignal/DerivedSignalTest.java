@@ -0,0 +1,114 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class DerivedSignalTest extends TestCase {
+	
+	@Test
+	public void test_chain_is_fused_into_one_source_listener() {
+		Signal1<Integer> source = new Signal1<Integer>(Integer.class);
+		final List<String> received = new ArrayList<String>();
+		DerivedSignal<String> derived = Signals.from(source)
+			.filter(value -> value % 2 == 0)
+			.map(value -> value * 10)
+			.filter(value -> value < 100)
+			.map(value -> "#" + value);
+		assertFalse(derived.isConnected());
+		assertEquals(0, source.numListeners());
+		derived.add(received::add);
+		assertTrue(derived.isConnected());
+		assertEquals(1, source.numListeners());
+		for (int i = 0; i < 12; i++) {
+			source.dispatch(i);
+		}
+		assertEquals(Arrays.asList("#0", "#20", "#40", "#60", "#80"), received);
+	}
+	
+	@Test
+	public void test_disconnects_when_last_listener_is_removed() {
+		Signal1<Integer> source = new Signal1<Integer>(Integer.class);
+		DerivedSignal<Integer> derived = Signals.from(source).map(value -> value + 1);
+		Signal1.Listener<Integer> listener = value -> {};
+		derived.add(listener);
+		derived.add(value -> {}, true);
+		assertEquals(1, source.numListeners());
+		source.dispatch(1);
+		assertEquals(1, derived.numListeners());
+		assertTrue(derived.remove(listener));
+		assertFalse(derived.isConnected());
+		assertEquals(0, source.numListeners());
+	}
+	
+	@Test
+	public void test_add_once_listener_disconnects_after_dispatch() {
+		Signal1<Integer> source = new Signal1<Integer>(Integer.class);
+		DerivedSignal<Integer> derived = Signals.from(source).filter(value -> value > 0);
+		final List<Integer> received = new ArrayList<Integer>();
+		derived.add(received::add, true);
+		source.dispatch(0);
+		assertTrue(derived.isConnected());
+		source.dispatch(5);
+		source.dispatch(6);
+		assertEquals(Arrays.asList(5), received);
+		assertFalse(derived.isConnected());
+		assertEquals(0, source.numListeners());
+	}
+	
+	@Test
+	public void test_merge() {
+		Signal1<Integer> first = new Signal1<Integer>(Integer.class);
+		Signal1<Integer> second = new Signal1<Integer>(Integer.class);
+		final List<Integer> received = new ArrayList<Integer>();
+		DerivedSignal<Integer> merged = Signals.from(first).merge(Signals.from(second).map(value -> -value));
+		merged.add(received::add);
+		first.dispatch(1);
+		second.dispatch(2);
+		first.dispatch(3);
+		assertEquals(Arrays.asList(1, -2, 3), received);
+		merged.removeAll();
+		assertEquals(0, first.numListeners());
+		assertEquals(0, second.numListeners());
+	}
+	
+	@Test
+	public void test_zip_pairs_values_in_order() {
+		Signal1<String> names = new Signal1<String>(String.class);
+		Signal1<Integer> ages = new Signal1<Integer>(Integer.class);
+		final List<String> received = new ArrayList<String>();
+		DerivedSignal<String> zipped = Signals.from(names).zip(Signals.from(ages), (name, age) -> name + "=" + age);
+		zipped.add(received::add);
+		names.dispatch("a");
+		names.dispatch("b");
+		ages.dispatch(1);
+		ages.dispatch(2);
+		ages.dispatch(3);
+		names.dispatch("c");
+		assertEquals(Arrays.asList("a=1", "b=2", "c=3"), received);
+	}
+	
+	@Test
+	public void test_reflective_listener() {
+		Signal1<Integer> source = new Signal1<Integer>(Integer.class);
+		Collector collector = new Collector();
+		DerivedSignal<Integer> derived = Signals.from(source).map(value -> value * 2);
+		derived.add(collector, "receive", false);
+		source.dispatch(4);
+		assertEquals(Arrays.<Object>asList(8), collector.received);
+	}
+	
+	public static class Collector {
+		final List<Object> received = new ArrayList<Object>();
+		
+		public void receive(Object value) {
+			received.add(value);
+		}
+	}
+}
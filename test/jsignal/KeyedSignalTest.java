@@ -0,0 +1,94 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class KeyedSignalTest extends TestCase {
+
+	@Test
+	public void test_dispatch_only_reaches_matching_key() {
+		KeyedSignal signal = new KeyedSignal(0, int.class);
+		SignalListener one = mock(SignalListener.class);
+		SignalListener two = mock(SignalListener.class);
+		signal.add(1, one, "callback");
+		signal.add(2, two, "callback");
+		signal.dispatch(1);
+		verify(one, times(1)).callback(1);
+		verify(two, never()).callback(1);
+		assertEquals(2, signal.numListeners());
+		assertEquals(1, signal.numListeners(2));
+	}
+	
+	@Test
+	public void test_catch_all_listeners_receive_every_key() {
+		KeyedSignal signal = new KeyedSignal(0, int.class);
+		SignalListener catchAll = mock(SignalListener.class);
+		SignalListener keyed = mock(SignalListener.class);
+		signal.add(catchAll, "callback");
+		signal.add(7, keyed, "callback");
+		signal.dispatch(7);
+		signal.dispatch(8);
+		verify(catchAll, times(1)).callback(7);
+		verify(catchAll, times(1)).callback(8);
+		verify(keyed, times(1)).callback(7);
+		verify(keyed, never()).callback(8);
+	}
+	
+	@Test
+	public void test_key_function_extracts_key_from_argument() {
+		KeyedSignal signal = new KeyedSignal(2, arg -> ((String) arg).substring(0, 2), int.class, Object.class, String.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add("eu", mockListener, "callback");
+		signal.dispatch(1, null, "eu-fr");
+		signal.dispatch(2, null, "us-ny");
+		verify(mockListener, times(1)).callback(1, null, "eu-fr");
+		verify(mockListener, never()).callback(2, null, "us-ny");
+	}
+	
+	@Test
+	public void test_addOnce_and_remove_drop_empty_keys() {
+		KeyedSignal signal = new KeyedSignal(0, int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(1, mockListener, "callback", true);
+		signal.add(2, mockListener, "callback");
+		signal.dispatch(1);
+		signal.dispatch(1);
+		verify(mockListener, times(1)).callback(1);
+		assertFalse(signal.containsListener(1, mockListener));
+		assertTrue(signal.containsListener(2, mockListener));
+		assertTrue(signal.remove(2, mockListener));
+		assertFalse(signal.remove(2, mockListener));
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_invalid_key_index_is_rejected() {
+		try {
+			new KeyedSignal(1, int.class);
+			fail("Expected exception was not thrown");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+	
+	@Test
+	public void test_keyed_listeners_are_measured() {
+		KeyedSignal signal = new KeyedSignal(0, int.class);
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		signal.add(new SignalListener(), "callback");
+		signal.add(3, new SignalListener(), "callback");
+		signal.dispatch(3);
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(1, snapshot.getDispatchCount());
+		assertEquals(2, snapshot.getListeners().size());
+	}
+}
@@ -0,0 +1,113 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class ParallelSignalTest extends TestCase {
+	private static final ForkJoinPool POOL = new ForkJoinPool(4);
+	
+	public static class Recorder {
+		public final AtomicInteger calls = new AtomicInteger();
+		public volatile Thread thread;
+		
+		public void callback(int value) throws InterruptedException {
+			Thread.sleep(value);
+			thread = Thread.currentThread();
+			calls.incrementAndGet();
+		}
+	}
+	
+	public static class Failing {
+		public void callback(int value) {
+			throw new IllegalStateException("failed "+value);
+		}
+	}
+	
+	@Test
+	public void test_dispatch_waits_for_all_listeners() {
+		ParallelSignal signal = new ParallelSignal(POOL, 4, int.class);
+		Recorder[] recorders = add(signal, 64, false);
+		signal.dispatch(5);
+		Set<Thread> threads = ConcurrentHashMap.newKeySet();
+		for (Recorder recorder : recorders) {
+			assertEquals(1, recorder.calls.get());
+			threads.add(recorder.thread);
+		}
+		assertTrue(threads.size() > 1);
+	}
+	
+	@Test
+	public void test_below_threshold_runs_on_calling_thread() {
+		ParallelSignal signal = new ParallelSignal(POOL, 8, int.class);
+		Recorder[] recorders = add(signal, 7, false);
+		signal.dispatch(0);
+		for (Recorder recorder : recorders) {
+			assertEquals(1, recorder.calls.get());
+			assertSame(Thread.currentThread(), recorder.thread);
+		}
+	}
+	
+	@Test
+	public void test_add_once_listeners_fire_once() {
+		ParallelSignal signal = new ParallelSignal(POOL, 2, int.class);
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		Recorder[] once = add(signal, 32, true);
+		Recorder[] always = add(signal, 32, false);
+		signal.dispatch(0);
+		signal.dispatch(0);
+		assertEquals(32, signal.numListeners());
+		for (int i = 0; i < once.length; i++) {
+			assertEquals(1, once[i].calls.get());
+			assertEquals(2, always[i].calls.get());
+		}
+		assertEquals(96, metrics.getInvocationCount());
+	}
+	
+	@Test
+	public void test_failures_are_reported_together() {
+		ParallelSignal signal = new ParallelSignal(POOL, 2, int.class);
+		Recorder[] recorders = add(signal, 16, false);
+		for (int i = 0; i < 3; i++) {
+			signal.add(new Failing(), "callback");
+		}
+		try {
+			signal.dispatch(0);
+			fail("Expected a SignalException");
+		} catch (SignalException e) {
+			assertEquals(3, e.getSuppressed().length);
+			for (Throwable failure : e.getSuppressed()) {
+				assertTrue(failure.getCause() instanceof IllegalStateException);
+			}
+		}
+		for (Recorder recorder : recorders) {
+			assertEquals(1, recorder.calls.get());
+		}
+	}
+	
+	@Test
+	public void test_invalid_threshold_is_rejected() {
+		try {
+			new ParallelSignal(POOL, 0, int.class);
+			fail("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	
+	private static Recorder[] add(ParallelSignal signal, int count, boolean addOnce) {
+		Recorder[] recorders = new Recorder[count];
+		for (int i = 0; i < count; i++) {
+			recorders[i] = new Recorder();
+			signal.add(recorders[i], "callback", addOnce);
+		}
+		return recorders;
+	}
+}
@@ -0,0 +1,81 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class PrimitiveSignalTest extends TestCase {
+
+	@Test
+	public void test_int_dispatch() {
+		IntSignal signal = new IntSignal();
+		final int[] received = new int[1];
+		signal.add(value -> received[0] += value);
+		signal.dispatch(3);
+		signal.dispatch(4);
+		assertEquals(7, received[0]);
+	}
+	
+	@Test
+	public void test_int_addOnce_fires_once_under_reentrant_dispatch() {
+		final IntSignal signal = new IntSignal();
+		final int[] count = new int[1];
+		signal.add(value -> {
+			if (value == 0) {
+				signal.dispatch(1);
+			}
+		});
+		signal.add(value -> count[0]++, true);
+		signal.dispatch(0);
+		assertEquals(1, count[0]);
+		assertEquals(1, signal.numListeners());
+	}
+	
+	@Test
+	public void test_long_dispatch() {
+		LongSignal signal = new LongSignal();
+		final long[] received = new long[1];
+		signal.add(value -> received[0] = value);
+		signal.dispatch(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, received[0]);
+	}
+	
+	@Test
+	public void test_double_dispatch() {
+		DoubleSignal signal = new DoubleSignal();
+		final double[] received = new double[1];
+		signal.add(value -> received[0] = value, true);
+		signal.dispatch(17.06);
+		signal.dispatch(1.0);
+		assertEquals(17.06, received[0]);
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_reflective_listener_receives_int() {
+		IntSignal signal = new IntSignal();
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		signal.dispatch(2);
+		verify(mockListener, times(1)).callback(2);
+	}
+	
+	@Test
+	public void test_untyped_dispatch_widens_argument() {
+		DoubleSignal signal = new DoubleSignal();
+		final double[] received = new double[1];
+		signal.add(value -> received[0] = value);
+		((IDispatcher) signal).dispatch(2);
+		assertEquals(2.0, received[0]);
+		((IDispatcher) signal).dispatch('a');
+		assertEquals(97.0, received[0]);
+	}
+}
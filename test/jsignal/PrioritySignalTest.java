@@ -7,6 +7,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import junit.framework.TestCase;
 
 import org.junit.Test;
@@ -87,4 +92,192 @@ public class PrioritySignalTest extends TestCase {
 		signal.dispatch();
 		verify(listener, times(1)).callback();
 	}
+	
+	@Test
+	public void test_equal_priorities_dispatch_in_insertion_order() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		SignalListener first = mock(SignalListener.class);
+		SignalListener second = mock(SignalListener.class);
+		SignalListener third = mock(SignalListener.class);
+		SignalListener early = mock(SignalListener.class);
+		InOrder priority = inOrder(early, first, second, third);
+		signal.add(first, "callback", 1);
+		signal.add(second, "callback", 1);
+		signal.add(third, "callback", 1);
+		signal.add(early, "callback", 0);
+		signal.dispatch();
+		signal.dispatch();
+		for (int i = 0; i < 2; i++) {
+			priority.verify(early).callback();
+			priority.verify(first).callback();
+			priority.verify(second).callback();
+			priority.verify(third).callback();
+		}
+	}
+	
+	@Test
+	public void test_null_priority_dispatches_first() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		SignalListener prioritized = mock(SignalListener.class);
+		SignalListener unprioritized = mock(SignalListener.class);
+		InOrder priority = inOrder(unprioritized, prioritized);
+		signal.add(prioritized, "callback", 0);
+		signal.add(unprioritized, "callback");
+		signal.dispatch();
+		priority.verify(unprioritized).callback();
+		priority.verify(prioritized).callback();
+	}
+	
+	@Test
+	public void test_readding_listener_replaces_priority() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		SignalListener first = mock(SignalListener.class);
+		SignalListener second = mock(SignalListener.class);
+		InOrder priority = inOrder(second, first);
+		signal.add(first, "callback", 0);
+		signal.add(second, "callback", 1);
+		assertSame(first, signal.add(first, "callback", 2));
+		assertEquals(2, signal.numListeners());
+		signal.dispatch();
+		priority.verify(second).callback();
+		priority.verify(first).callback();
+	}
+	
+	@Test
+	public void test_listener_can_remove_another_during_dispatch() {
+		final PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		final SignalListener removed = mock(SignalListener.class);
+		Remover remover = new Remover(signal, removed);
+		signal.add(remover, "callback", 0);
+		signal.add(removed, "callback", 1);
+		signal.dispatch();
+		signal.dispatch();
+		assertEquals(1, signal.numListeners());
+		verify(removed, never()).callback();
+	}
+	
+	@Test
+	public void test_addOnce_fires_once_under_reentrant_dispatch() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		SignalListener once = mock(SignalListener.class);
+		signal.add(new Redispatcher(signal), "callback", 0);
+		signal.add(once, "callback", true, 1);
+		signal.dispatch();
+		verify(once, times(1)).callback();
+		assertEquals(1, signal.numListeners());
+	}
+	
+	public static class Redispatcher {
+		private final IDispatcher signal;
+		private boolean dispatched;
+		
+		public Redispatcher(IDispatcher signal) {
+			this.signal = signal;
+		}
+		
+		public void callback() {
+			if (!dispatched) {
+				dispatched = true;
+				signal.dispatch();
+			}
+		}
+	}
+	
+	public static class Remover {
+		private final ISignal signal;
+		private final Object listener;
+		
+		public Remover(ISignal signal, Object listener) {
+			this.signal = signal;
+			this.listener = listener;
+		}
+		
+		public void callback() {
+			signal.remove(listener);
+		}
+	}
+	
+	@Test
+	public void test_changes_during_dispatch_keep_priority_order() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>(1);
+		List<Object> dispatched = new ArrayList<Object>();
+		Recorder late = new Recorder(dispatched);
+		Recorder once = new Recorder(dispatched);
+		Recorder last = new Recorder(dispatched);
+		Adder adder = new Adder(dispatched, signal, late);
+		signal.add(last, "callback", 2);
+		signal.add(adder, "callback", 0);
+		signal.add(once, "callback", true, 1);
+		signal.dispatch();
+		assertEquals(Arrays.asList(adder, once, last), dispatched);
+		dispatched.clear();
+		signal.dispatch();
+		assertEquals(Arrays.asList(adder, late, last), dispatched);
+		assertEquals(3, signal.numListeners());
+	}
+	
+	@Test
+	public void test_random_churn_keeps_priority_order() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>(1);
+		List<Object> dispatched = new ArrayList<Object>();
+		List<Recorder> expected = new ArrayList<Recorder>();
+		Recorder[] recorders = new Recorder[200];
+		for (int i = 0; i < recorders.length; i++) {
+			recorders[i] = new Recorder(dispatched);
+		}
+		Random random = new Random(42);
+		for (int step = 0; step < 2000; step++) {
+			Recorder recorder = recorders[random.nextInt(recorders.length)];
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(recorder), signal.remove(recorder));
+			} else {
+				expected.remove(recorder);
+				recorder.priority = random.nextInt(10);
+				signal.add(recorder, "callback", recorder.priority);
+				int index = 0;
+				while (index < expected.size() && expected.get(index).priority <= recorder.priority) {
+					index++;
+				}
+				expected.add(index, recorder);
+			}
+			if (step % 50 == 0) {
+				dispatched.clear();
+				signal.dispatch();
+				assertEquals(expected, dispatched);
+			}
+		}
+		assertEquals(expected.size(), signal.numListeners());
+	}
+	
+	public static class Recorder {
+		private final List<Object> dispatched;
+		int priority;
+		
+		public Recorder(List<Object> dispatched) {
+			this.dispatched = dispatched;
+		}
+		
+		public void callback() {
+			dispatched.add(this);
+		}
+	}
+	
+	public static class Adder extends Recorder {
+		private final PrioritySignal<Integer> signal;
+		private final Object listener;
+		
+		public Adder(List<Object> dispatched, PrioritySignal<Integer> signal, Object listener) {
+			super(dispatched);
+			this.signal = signal;
+			this.listener = listener;
+		}
+		
+		@Override
+		public void callback() {
+			super.callback();
+			if (!signal.containsListener(listener)) {
+				signal.add(listener, "callback", 1);
+			}
+		}
+	}
 }
@@ -0,0 +1,130 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.RingBufferSignal.WaitStrategy;
+
+public class RingBufferSignalTest extends TestCase {
+
+	public static class SummingListener {
+		public final AtomicLong sum = new AtomicLong();
+		public final CountDownLatch received;
+		
+		public SummingListener(int expected) {
+			received = new CountDownLatch(expected);
+		}
+		
+		public void callback(int value) {
+			sum.addAndGet(value);
+			received.countDown();
+		}
+	}
+	
+	public static class ErrorListener {
+		public final AtomicLong calls = new AtomicLong();
+		
+		public void callback(int value) {
+			calls.incrementAndGet();
+			throw new AssertionError("failed "+value);
+		}
+	}
+	
+	@Test
+	public void test_busy_spin_delivers_all_dispatches() throws InterruptedException {
+		// busy spinning needs a core per waiting thread, so keep producers from wrapping the ring
+		assertDeliversAll(WaitStrategy.BUSY_SPIN, 1024, 1, 1000);
+	}
+	
+	@Test
+	public void test_yield_delivers_all_dispatches() throws InterruptedException {
+		assertDeliversAll(WaitStrategy.YIELD, 16, 4, 5000);
+	}
+	
+	@Test
+	public void test_park_delivers_all_dispatches() throws InterruptedException {
+		assertDeliversAll(WaitStrategy.PARK, 16, 4, 5000);
+	}
+	
+	@Test
+	public void test_addOnce_only_fires_once() throws InterruptedException {
+		RingBufferSignal signal = new RingBufferSignal(4, WaitStrategy.PARK, int.class);
+		SummingListener listener = new SummingListener(1);
+		signal.add(listener, "callback", true);
+		signal.dispatch(1);
+		assertTrue(listener.received.await(10, TimeUnit.SECONDS));
+		while (signal.numListeners() > 0) {
+			Thread.sleep(1);
+		}
+		signal.dispatch(2);
+		assertEquals(1, listener.sum.get());
+	}
+	
+	@Test
+	public void test_listener_error_does_not_block_producers() throws InterruptedException {
+		final RingBufferSignal signal = new RingBufferSignal(4, WaitStrategy.PARK, int.class);
+		final ErrorListener listener = new ErrorListener();
+		signal.add(listener, "callback");
+		Thread producer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 20; i++) {
+					signal.dispatch(i);
+				}
+			}
+		};
+		producer.start();
+		producer.join(10000);
+		assertFalse(producer.isAlive());
+		while (listener.calls.get() < 20) {
+			Thread.sleep(1);
+		}
+		assertEquals(1, signal.numListeners());
+	}
+	
+	@Test
+	public void test_capacity_must_be_power_of_two() {
+		try {
+			new RingBufferSignal(6, WaitStrategy.PARK);
+			fail("Expected exception was not thrown");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+	
+	private void assertDeliversAll(WaitStrategy waitStrategy, int capacity, int producers, final int dispatches) throws InterruptedException {
+		final RingBufferSignal signal = new RingBufferSignal(capacity, waitStrategy, int.class);
+		SummingListener first = new SummingListener(producers * dispatches);
+		SummingListener second = new SummingListener(producers * dispatches);
+		signal.add(first, "callback");
+		signal.add(second, "callback");
+		Thread[] threads = new Thread[producers];
+		for (int i = 0; i < producers; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 1; j <= dispatches; j++) {
+						signal.dispatch(j);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(first.received.await(10, TimeUnit.SECONDS));
+		assertTrue(second.received.await(10, TimeUnit.SECONDS));
+		long expected = (long) producers * dispatches * (dispatches + 1) / 2;
+		assertEquals(expected, first.sum.get());
+		assertEquals(expected, second.sum.get());
+		signal.removeAll();
+		assertEquals(0, signal.numListeners());
+	}
+}
@@ -0,0 +1,198 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class SharedSignalRingTest {
+	private Path file;
+	
+	@Before
+	public void createFile() throws IOException {
+		file = Files.createTempFile("jsignal-ring", ".ring");
+	}
+	
+	@After
+	public void deleteFile() {
+		file.toFile().delete();
+	}
+	
+	@Test
+	public void test_published_dispatches_reach_signal_and_subscriber() throws IOException {
+		SharedSignalRing ring = new SharedSignalRing(file, 4096);
+		Signal signal = new Signal(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		ISignalOwner ints = ring.publish(1, signal, int.class);
+		ISignalOwner mixed = ring.publish(2, new Signal(Double.class, String.class, byte[].class), Double.class, String.class, byte[].class);
+		ints.dispatch(0);
+		
+		Recorder received = new Recorder();
+		SharedSignalSubscriber subscriber = new SharedSignalSubscriber(file);
+		subscriber.register(1, received, int.class);
+		subscriber.register(2, received, Double.class, String.class, byte[].class);
+		assertEquals(0, subscriber.poll());
+		ints.dispatch(1);
+		mixed.dispatch(0.5, "one", new byte[] { 1, 2 });
+		mixed.dispatch(null, null, null);
+		assertEquals(3, subscriber.poll());
+		assertEquals(0, subscriber.poll());
+		ring.close();
+		verify(mockListener, times(1)).callback(1);
+		assertArrayEquals(new Object[] { 1 }, received.dispatches.get(0));
+		assertEquals(0.5, received.dispatches.get(1)[0]);
+		assertEquals("one", received.dispatches.get(1)[1]);
+		assertArrayEquals(new byte[] { 1, 2 }, (byte[]) received.dispatches.get(1)[2]);
+		assertArrayEquals(new Object[] { null, null, null }, received.dispatches.get(2));
+	}
+	
+	@Test
+	public void test_records_wrap_around_the_ring() throws IOException {
+		SharedSignalRing ring = new SharedSignalRing(file, 1024);
+		ISignalOwner strings = ring.publish(1, new Signal(String.class), String.class);
+		ISignalOwner skipped = ring.publish(2, new Signal(long.class), long.class);
+		Recorder received = new Recorder();
+		SharedSignalSubscriber subscriber = new SharedSignalSubscriber(file);
+		subscriber.register(1, received, String.class);
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			builder.append((char) ('a' + i % 26));
+			if (builder.length() > 100) {
+				builder.setLength(0);
+			}
+			strings.dispatch(builder.toString());
+			skipped.dispatch((long) i);
+			assertEquals(1, subscriber.poll());
+			assertEquals(builder.toString(), received.dispatches.get(i)[0]);
+		}
+		assertEquals(0, subscriber.numLapped());
+	}
+	
+	@Test
+	public void test_lapped_subscriber_skips_ahead() throws IOException {
+		SharedSignalRing ring = new SharedSignalRing(file, 1024);
+		ISignalOwner longs = ring.publish(1, new Signal(long.class), long.class);
+		Recorder received = new Recorder();
+		SharedSignalSubscriber subscriber = new SharedSignalSubscriber(file);
+		subscriber.register(1, received, long.class);
+		for (long i = 0; i < 1000; i++) {
+			longs.dispatch(i);
+		}
+		subscriber.poll();
+		assertEquals(1, subscriber.numLapped());
+		longs.dispatch(-1L);
+		assertTrue(subscriber.poll() > 0);
+		assertEquals(-1L, received.dispatches.get(received.dispatches.size() - 1)[0]);
+	}
+	
+	@Test
+	public void test_reopened_ring_carries_on() throws IOException {
+		SharedSignalRing ring = new SharedSignalRing(file, 1024);
+		SharedSignalSubscriber subscriber = new SharedSignalSubscriber(file);
+		Recorder received = new Recorder();
+		subscriber.register(1, received, int.class);
+		ring.publish(1, new Signal(int.class), int.class).dispatch(1);
+		ring.close();
+		try {
+			new SharedSignalRing(file, 2048);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		ring = new SharedSignalRing(file, 1024);
+		ring.publish(1, new Signal(int.class), int.class).dispatch(2);
+		assertEquals(2, subscriber.poll());
+		assertEquals(2, received.dispatches.get(1)[0]);
+	}
+	
+	@Test
+	public void test_invalid_rings_are_rejected() throws IOException {
+		try {
+			new SharedSignalRing(file, 3000);
+			fail("Expected exception was not thrown");
+		} catch (IllegalArgumentException expected) {
+		}
+		Files.write(file, new byte[4096]);
+		try {
+			new SharedSignalSubscriber(file);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		SharedSignalRing ring = new SharedSignalRing(file, 1024);
+		ISignalOwner strings = ring.publish(1, new Signal(String.class), String.class);
+		try {
+			strings.dispatch(new String(new char[1024]));
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+	}
+	
+	@Test
+	public void test_dispatches_cross_processes() throws Exception {
+		new SharedSignalRing(file, 1 << 16).close();
+		Recorder received = new Recorder();
+		SharedSignalSubscriber subscriber = new SharedSignalSubscriber(file);
+		subscriber.register(7, received, int.class);
+		String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+		Process publisher = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), SharedSignalRingTest.class.getName(), file.toString())
+			.redirectErrorStream(true)
+			.redirectOutput(new File(file.toString()+".log"))
+			.start();
+		try {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+			while (received.dispatches.size() < 1000 && System.nanoTime() < deadline) {
+				subscriber.poll();
+			}
+			assertTrue(publisher.waitFor(30, TimeUnit.SECONDS));
+			assertEquals(0, publisher.exitValue());
+		} finally {
+			publisher.destroy();
+			new File(file.toString()+".log").delete();
+		}
+		assertEquals(1000, received.dispatches.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, received.dispatches.get(i)[0]);
+		}
+	}
+	
+	/**
+	 * The publishing process of <code>test_dispatches_cross_processes</code>.
+	 */
+	public static void main(String[] args) throws IOException {
+		SharedSignalRing ring = new SharedSignalRing(Paths.get(args[0]), 1 << 16);
+		ISignalOwner ints = ring.publish(7, new Signal(int.class), int.class);
+		for (int i = 0; i < 1000; i++) {
+			ints.dispatch(i);
+		}
+		ring.close();
+	}
+	
+	private static final class Recorder implements IDispatcher {
+		final List<Object[]> dispatches = new ArrayList<Object[]>();
+		
+		@Override
+		public void dispatch(Object... args) {
+			dispatches.add(args);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class SignalBusTest extends TestCase {
+
+	@Test
+	public void test_exact_topic_dispatch() {
+		SignalBus bus = new SignalBus(int.class);
+		SignalListener eu = mock(SignalListener.class);
+		SignalListener us = mock(SignalListener.class);
+		bus.add("orders.eu", eu, "callback");
+		bus.add("orders.us", us, "callback");
+		bus.dispatch("orders.eu", 1);
+		verify(eu, times(1)).callback(1);
+		verify(us, never()).callback(1);
+	}
+	
+	@Test
+	public void test_star_matches_exactly_one_word() {
+		SignalBus bus = new SignalBus();
+		SignalListener mockListener = mock(SignalListener.class);
+		bus.add("orders.*.fr", mockListener, "callback");
+		bus.dispatch("orders.eu.fr");
+		bus.dispatch("orders.fr");
+		bus.dispatch("orders.eu.west.fr");
+		verify(mockListener, times(1)).callback();
+	}
+	
+	@Test
+	public void test_hash_matches_zero_or_more_words() {
+		SignalBus bus = new SignalBus();
+		SignalListener mockListener = mock(SignalListener.class);
+		bus.add("orders.#", mockListener, "callback");
+		bus.dispatch("orders");
+		bus.dispatch("orders.eu");
+		bus.dispatch("orders.eu.fr");
+		bus.dispatch("payments.eu");
+		verify(mockListener, times(3)).callback();
+	}
+	
+	@Test
+	public void test_pattern_reached_twice_dispatches_once() {
+		SignalBus bus = new SignalBus();
+		SignalListener mockListener = mock(SignalListener.class);
+		bus.add("#.eu.#", mockListener, "callback");
+		bus.dispatch("eu.eu.eu");
+		verify(mockListener, times(1)).callback();
+	}
+	
+	@Test
+	public void test_new_pattern_invalidates_cached_route() {
+		SignalBus bus = new SignalBus();
+		SignalListener first = mock(SignalListener.class);
+		SignalListener second = mock(SignalListener.class);
+		bus.add("orders.eu", first, "callback");
+		bus.dispatch("orders.eu");
+		bus.add("orders.*", second, "callback");
+		bus.dispatch("orders.eu");
+		verify(first, times(2)).callback();
+		verify(second, times(1)).callback();
+		assertEquals(2, bus.numListeners("orders.eu"));
+	}
+	
+	@Test
+	public void test_remove_and_remove_all() {
+		SignalBus bus = new SignalBus();
+		SignalListener mockListener = mock(SignalListener.class);
+		ISignal signal = bus.signal("orders.*");
+		signal.add(mockListener, "callback", false);
+		assertTrue(bus.remove("orders.*", mockListener));
+		assertFalse(bus.remove("orders.*", mockListener));
+		assertFalse(bus.remove("payments", mockListener));
+		signal.add(mockListener, "callback", false);
+		bus.removeAll();
+		bus.dispatch("orders.eu");
+		verify(mockListener, never()).callback();
+		signal.add(mockListener, "callback", false);
+		bus.dispatch("orders.eu");
+		verify(mockListener, times(1)).callback();
+	}
+	
+	@Test
+	public void test_invalid_topics_are_rejected() {
+		SignalBus bus = new SignalBus();
+		for (String topic : new String[] { "orders.*", "orders.#", "", "orders..eu", "orders." }) {
+			try {
+				bus.dispatch(topic);
+				fail("Expected exception was not thrown for `"+topic+"`");
+			} catch (SignalException expected) {
+			}
+		}
+	}
+}
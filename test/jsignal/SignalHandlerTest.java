@@ -0,0 +1,102 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * The listeners here are package-private, which the reflective fallback cannot invoke,
+ * so a successful dispatch shows the generated adapter was used.
+ */
+public class SignalHandlerTest {
+
+	@Test
+	public void test_generated_adapter_invokes_handler() {
+		Signal signal = new Signal(int.class);
+		Listener listener = new Listener();
+		signal.add(listener, "onInt");
+		signal.dispatch(3);
+		signal.dispatch((byte) 4);
+		assertEquals("[3, 4]", listener.received.toString());
+	}
+	
+	@Test
+	public void test_generated_adapter_describes_handler() {
+		Delegate delegate = Delegate.resolve(new Listener(), "onPair", new Class<?>[] { String.class, Object.class });
+		assertEquals("jsignal.SignalHandlerTest$Listener.onPair(java.lang.String,java.lang.Object)", delegate.toString());
+		assertEquals("onPair", delegate.getName());
+		assertEquals("onPair", delegate.getMethod().getName());
+		assertSame(Listener.class, delegate.getMethod().getDeclaringClass());
+	}
+	
+	@Test
+	public void test_adapter_is_found_by_name() {
+		assertEquals("jsignal.SignalHandlerTest_Listener_SignalAdapter", ListenerAdapter.adapterName(Listener.class));
+		assertSame(Listener.class, ListenerAdapter.find(Listener.class).getListenerType());
+		assertNull(ListenerAdapter.find(SignalHandlerTest.class));
+	}
+	
+	@Test
+	public void test_generated_adapter_works_with_priority_signal() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>(String.class, Object.class);
+		Listener listener = new Listener();
+		signal.add(listener, "onPair", false, 1);
+		signal.dispatch("a", null);
+		assertEquals("[a, null]", listener.received.toString());
+	}
+	
+	@Test
+	public void test_subclass_uses_superclass_adapter() {
+		Signal signal = new Signal(int.class);
+		SubListener listener = new SubListener();
+		signal.add(listener, "onInt");
+		signal.dispatch(5);
+		assertEquals("[-5]", listener.received.toString());
+	}
+	
+	@Test
+	public void test_unannotated_method_falls_back_to_reflection() {
+		Signal signal = new Signal();
+		try {
+			signal.add(new Listener(), "plain");
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+			assertTrue(expected.getCause() instanceof IllegalAccessException);
+		}
+	}
+	
+	static class Listener {
+		final List<Object> received = new ArrayList<Object>();
+		
+		@SignalHandler
+		public void onInt(int value) {
+			received.add(value);
+		}
+		
+		@SignalHandler
+		public void onPair(String first, Object second) {
+			received.add(first);
+			received.add(second);
+		}
+		
+		public void plain() {
+		}
+	}
+	
+	static class SubListener extends Listener {
+		
+		@Override
+		public void onInt(int value) {
+			received.add(-value);
+		}
+	}
+}
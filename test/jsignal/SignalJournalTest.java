@@ -0,0 +1,228 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class SignalJournalTest {
+	private Path directory;
+	
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("jsignal-journal");
+	}
+	
+	@After
+	public void deleteDirectory() {
+		File[] files = directory.toFile().listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.toFile().delete();
+	}
+	
+	@Test
+	public void test_recorded_dispatches_reach_signal_and_replay() throws IOException {
+		SignalJournal journal = new SignalJournal(directory, 4096);
+		Signal signal = new Signal(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		ISignalOwner ints = journal.record(1, signal, int.class);
+		ISignalOwner mixed = journal.record(2, new Signal(Double.class, String.class, byte[].class), Double.class, String.class, byte[].class);
+		ints.dispatch(1);
+		mixed.dispatch(0.5, "one", new byte[] { 1, 2 });
+		mixed.dispatch(null, null, null);
+		journal.close();
+		verify(mockListener, times(1)).callback(1);
+		
+		Recorder replayed = new Recorder();
+		JournalReplayer replayer = new JournalReplayer(directory);
+		replayer.register(1, replayed, int.class);
+		replayer.register(2, replayed, Double.class, String.class, byte[].class);
+		assertEquals(3, replayer.replay(false));
+		assertArrayEquals(new Object[] { 1 }, replayed.dispatches.get(0));
+		assertEquals(0.5, replayed.dispatches.get(1)[0]);
+		assertEquals("one", replayed.dispatches.get(1)[1]);
+		assertArrayEquals(new byte[] { 1, 2 }, (byte[]) replayed.dispatches.get(1)[2]);
+		assertArrayEquals(new Object[] { null, null, null }, replayed.dispatches.get(2));
+	}
+	
+	@Test
+	public void test_segments_roll_and_unregistered_ids_are_skipped() throws IOException {
+		SignalJournal journal = new SignalJournal(directory, 64);
+		ISignalOwner first = journal.record(1, new Signal(long.class), long.class);
+		ISignalOwner second = journal.record(2, new Signal(String.class), String.class);
+		for (long i = 0; i < 20; i++) {
+			first.dispatch(i);
+			second.dispatch("skipped");
+		}
+		journal.close();
+		assertTrue(SignalJournal.lastSegmentIndex(directory) > 1);
+		
+		Recorder replayed = new Recorder();
+		JournalReplayer replayer = new JournalReplayer(directory);
+		replayer.register(1, replayed, long.class);
+		assertEquals(20, replayer.replay(false));
+		for (int i = 0; i < 20; i++) {
+			assertEquals((long) i, replayed.dispatches.get(i)[0]);
+		}
+	}
+	
+	@Test
+	public void test_reopened_journal_appends_new_segment() throws IOException {
+		SignalJournal journal = new SignalJournal(directory, 1024);
+		journal.record(1, new Signal(int.class), int.class).dispatch(1);
+		journal.close();
+		journal = new SignalJournal(directory, 1024);
+		journal.record(1, new Signal(int.class), int.class).dispatch(2);
+		journal.close();
+		
+		Recorder replayed = new Recorder();
+		JournalReplayer replayer = new JournalReplayer(directory);
+		replayer.register(1, replayed, int.class);
+		assertEquals(2, replayer.replay(false));
+		assertEquals(2, replayed.dispatches.get(1)[0]);
+	}
+	
+	@Test
+	public void test_custom_codec() throws IOException {
+		Codec<StringBuilder> codec = new Codec<StringBuilder>() {
+			@Override
+			public void encode(StringBuilder value, ByteBuffer buffer) {
+				buffer.putInt(value.length());
+			}
+			
+			@Override
+			public StringBuilder decode(ByteBuffer buffer) {
+				return new StringBuilder().append(buffer.getInt());
+			}
+		};
+		SignalJournal journal = new SignalJournal(directory, 1024);
+		try {
+			journal.record(1, new Signal(StringBuilder.class), StringBuilder.class);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		journal.setCodec(StringBuilder.class, codec);
+		journal.record(1, new Signal(StringBuilder.class), StringBuilder.class).dispatch(new StringBuilder("abc"));
+		journal.close();
+		
+		Recorder replayed = new Recorder();
+		JournalReplayer replayer = new JournalReplayer(directory);
+		replayer.setCodec(StringBuilder.class, codec);
+		replayer.register(1, replayed, StringBuilder.class);
+		assertEquals(1, replayer.replay(true));
+		assertEquals("3", replayed.dispatches.get(0)[0].toString());
+	}
+	
+	@Test
+	public void test_failed_codec_does_not_hide_later_records() throws IOException {
+		Codec<String> codec = new Codec<String>() {
+			@Override
+			public void encode(String value, ByteBuffer buffer) {
+				buffer.putInt(value.length());
+				for (int i = 0; i < value.length(); i++) {
+					if (value.charAt(i) == '!') {
+						throw new IllegalStateException("Cannot encode "+value);
+					}
+					buffer.putChar(value.charAt(i));
+				}
+			}
+			
+			@Override
+			public String decode(ByteBuffer buffer) {
+				char[] chars = new char[buffer.getInt()];
+				for (int i = 0; i < chars.length; i++) {
+					chars[i] = buffer.getChar();
+				}
+				return new String(chars);
+			}
+		};
+		SignalJournal journal = new SignalJournal(directory, 1024);
+		journal.setCodec(String.class, codec);
+		ISignalOwner recorded = journal.record(1, new Signal(String.class), String.class);
+		recorded.dispatch("a");
+		try {
+			recorded.dispatch("a much longer string!");
+			fail("Expected exception was not thrown");
+		} catch (IllegalStateException expected) {
+		}
+		recorded.dispatch("b");
+		journal.close();
+		
+		Recorder replayed = new Recorder();
+		JournalReplayer replayer = new JournalReplayer(directory);
+		replayer.setCodec(String.class, codec);
+		replayer.register(1, replayed, String.class);
+		assertEquals(2, replayer.replay(false));
+		assertEquals("a", replayed.dispatches.get(0)[0]);
+		assertEquals("b", replayed.dispatches.get(1)[0]);
+	}
+	
+	@Test
+	public void test_dispatch_is_journaled_when_a_listener_fails() throws IOException {
+		SignalJournal journal = new SignalJournal(directory, 1024);
+		Signal signal = new Signal(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		doThrow(new IllegalStateException()).when(mockListener).callback(1);
+		signal.add(mockListener, "callback");
+		ISignalOwner recorded = journal.record(1, signal, int.class);
+		try {
+			recorded.dispatch(1);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		journal.close();
+		
+		Recorder replayed = new Recorder();
+		JournalReplayer replayer = new JournalReplayer(directory);
+		replayer.register(1, replayed, int.class);
+		assertEquals(1, replayer.replay(false));
+		assertArrayEquals(new Object[] { 1 }, replayed.dispatches.get(0));
+	}
+	
+	@Test
+	public void test_oversized_dispatch_is_rejected() throws IOException {
+		SignalJournal journal = new SignalJournal(directory, 64);
+		ISignalOwner recorded = journal.record(1, new Signal(String.class), String.class);
+		try {
+			recorded.dispatch("a string which is far too long to fit in a single sixty four byte segment");
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		recorded.dispatch("fits");
+		journal.close();
+	}
+	
+	private static final class Recorder implements IDispatcher {
+		final List<Object[]> dispatches = new ArrayList<Object[]>();
+		
+		@Override
+		public void dispatch(Object... args) {
+			dispatches.add(args);
+		}
+	}
+}
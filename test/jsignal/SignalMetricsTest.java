@@ -0,0 +1,137 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class SignalMetricsTest extends TestCase {
+
+	@Test
+	public void test_metrics_are_disabled_by_default() {
+		Signal signal = new Signal();
+		signal.add(mock(SignalListener.class), "callback");
+		signal.dispatch();
+		assertNull(signal.getMetrics());
+	}
+	
+	@Test
+	public void test_dispatches_and_invocations_are_counted() {
+		Signal signal = new Signal();
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		signal.add(mock(SignalListener.class), "callback");
+		signal.add(mock(SignalListener.class), "callback");
+		signal.dispatch();
+		signal.dispatch();
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(2, snapshot.getDispatchCount());
+		assertEquals(4, snapshot.getInvocationCount());
+		assertEquals(0, snapshot.getExceptionCount());
+		assertEquals(2, snapshot.getListeners().size());
+		assertEquals(2, snapshot.getListeners().get(0).getInvocationCount());
+		assertTrue(snapshot.getLatencyPercentileNanos(50) <= snapshot.getLatencyPercentileNanos(100));
+		assertTrue(snapshot.getTotalLatencyNanos() >= snapshot.getMaxLatencyNanos());
+	}
+	
+	@Test
+	public void test_exceptions_are_counted() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		SignalListener failing = mock(SignalListener.class);
+		doThrow(new IllegalStateException()).when(failing).callback();
+		signal.add(failing, "callback", 0);
+		try {
+			signal.dispatch();
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		assertEquals(1, metrics.getExceptionCount());
+		assertEquals(1, metrics.snapshot().getListeners().get(0).getExceptionCount());
+	}
+	
+	@Test
+	public void test_removed_listener_metrics_are_released() {
+		Signal signal = new Signal();
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		SignalListener listener = mock(SignalListener.class);
+		signal.add(listener, "callback");
+		signal.add(mock(SignalListener.class), "callback", true);
+		signal.dispatch();
+		assertEquals(1, metrics.snapshot().getListeners().size());
+		signal.remove(listener);
+		assertEquals(0, metrics.snapshot().getListeners().size());
+		assertEquals(2, metrics.getInvocationCount());
+	}
+	
+	@Test
+	public void test_metrics_are_exposed_through_jmx() throws Exception {
+		Signal signal = new Signal();
+		SignalMetrics metrics = new SignalMetrics();
+		signal.setMetrics(metrics);
+		signal.add(mock(SignalListener.class), "callback");
+		signal.dispatch();
+		ObjectName name = metrics.register("SignalMetricsTest");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			assertEquals(1L, server.getAttribute(name, "DispatchCount"));
+			assertEquals(1L, server.getAttribute(name, "InvocationCount"));
+		} finally {
+			server.unregisterMBean(name);
+		}
+	}
+	
+	@Test
+	public void test_histogram_percentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		long[] counts = histogram.counts();
+		long median = LatencyHistogram.percentile(counts, 50);
+		assertTrue(median >= 500000 && median <= 500000 * 1.125);
+		long max = LatencyHistogram.percentile(counts, 100);
+		assertTrue(max >= 1000000 && max <= 1000000 * 1.125);
+		assertEquals(0, LatencyHistogram.percentile(new LatencyHistogram().counts(), 99));
+	}
+	
+	@Test
+	public void test_histogram_counts_concurrent_records() throws InterruptedException {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						histogram.record(100);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		long total = 0;
+		for (long count : histogram.counts()) {
+			total += count;
+		}
+		assertEquals(40000, total);
+		histogram.reset();
+		assertEquals(0, LatencyHistogram.percentile(histogram.counts(), 100));
+	}
+}
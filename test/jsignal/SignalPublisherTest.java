@@ -0,0 +1,188 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+public class SignalPublisherTest extends TestCase {
+	private static final Executor DIRECT = new Executor() {
+		@Override
+		public void execute(Runnable command) {
+			command.run();
+		}
+	};
+	
+	@Test
+	public void test_demand_is_honoured() {
+		SignalPublisher publisher = Signals.publisher(new Signal(int.class), 10, OverflowPolicy.DROP_NEWEST, DIRECT);
+		Collector collector = new Collector(2);
+		publisher.subscribe(collector);
+		for (int i = 1; i <= 5; i++) {
+			publisher.dispatch(i);
+		}
+		assertEquals(Arrays.asList(1, 2), collector.values());
+		collector.subscription.request(3);
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), collector.values());
+		assertEquals(0, publisher.numDropped());
+	}
+	
+	@Test
+	public void test_drop_oldest() {
+		assertEquals(Arrays.asList(4, 5), overflow(OverflowPolicy.DROP_OLDEST));
+	}
+	
+	@Test
+	public void test_drop_newest() {
+		assertEquals(Arrays.asList(1, 2), overflow(OverflowPolicy.DROP_NEWEST));
+	}
+	
+	@Test
+	public void test_conflate_latest() {
+		assertEquals(Arrays.asList(1, 5), overflow(OverflowPolicy.CONFLATE_LATEST));
+	}
+	
+	@Test
+	public void test_block_waits_for_demand() throws InterruptedException {
+		final SignalPublisher publisher = Signals.publisher(new Signal(int.class), 1, OverflowPolicy.BLOCK, DIRECT);
+		Collector collector = new Collector(0);
+		publisher.subscribe(collector);
+		final CountDownLatch done = new CountDownLatch(1);
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i = 1; i <= 5; i++) {
+					publisher.dispatch(i);
+				}
+				done.countDown();
+			}
+		});
+		producer.start();
+		assertFalse(done.await(50, TimeUnit.MILLISECONDS));
+		for (int i = 0; i < 5; i++) {
+			collector.subscription.request(1);
+		}
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		collector.subscription.request(1);
+		assertEquals(Arrays.asList(1, 2, 3, 4, 5), collector.values());
+		assertEquals(0, publisher.numDropped());
+	}
+	
+	@Test
+	public void test_slow_subscriber_does_not_hold_back_others() {
+		SignalPublisher publisher = Signals.publisher(new Signal(int.class), 2, OverflowPolicy.DROP_OLDEST, DIRECT);
+		Collector fast = new Collector(Long.MAX_VALUE);
+		Collector slow = new Collector(0);
+		publisher.subscribe(fast);
+		publisher.subscribe(slow);
+		for (int i = 1; i <= 100; i++) {
+			publisher.dispatch(i);
+		}
+		assertEquals(100, fast.values().size());
+		assertEquals(0, slow.values().size());
+		assertEquals(98, publisher.numDropped());
+	}
+	
+	@Test
+	public void test_close_completes_after_queued_dispatches() {
+		SignalPublisher publisher = Signals.publisher(new Signal(int.class), 10, OverflowPolicy.DROP_NEWEST, DIRECT);
+		Collector collector = new Collector(0);
+		publisher.subscribe(collector);
+		publisher.dispatch(1);
+		publisher.close();
+		assertFalse(collector.completed);
+		collector.subscription.request(1);
+		assertEquals(Arrays.asList(1), collector.values());
+		assertTrue(collector.completed);
+		assertEquals(0, publisher.numSubscribers());
+		Collector late = new Collector(1);
+		publisher.subscribe(late);
+		assertTrue(late.completed);
+	}
+	
+	@Test
+	public void test_cancel_and_invalid_requests() {
+		SignalPublisher publisher = Signals.publisher(new Signal(int.class), 10, OverflowPolicy.DROP_NEWEST, DIRECT);
+		Collector cancelled = new Collector(1);
+		Collector invalid = new Collector(0);
+		publisher.subscribe(cancelled);
+		publisher.subscribe(invalid);
+		assertEquals(2, publisher.numSubscribers());
+		cancelled.subscription.cancel();
+		invalid.subscription.request(0);
+		assertTrue(invalid.error instanceof IllegalArgumentException);
+		assertEquals(0, publisher.numSubscribers());
+		publisher.dispatch(1);
+		assertEquals(0, cancelled.values().size());
+	}
+	
+	@Test
+	public void test_duplicate_subscriber_is_rejected() {
+		SignalPublisher publisher = Signals.publisher(new Signal(int.class), 10, OverflowPolicy.DROP_NEWEST, DIRECT);
+		Collector collector = new Collector(1);
+		publisher.subscribe(collector);
+		publisher.subscribe(collector);
+		assertTrue(collector.error instanceof IllegalStateException);
+		assertEquals(1, publisher.numSubscribers());
+	}
+	
+	private static List<Integer> overflow(OverflowPolicy policy) {
+		SignalPublisher publisher = Signals.publisher(new Signal(int.class), 2, policy, DIRECT);
+		Collector collector = new Collector(0);
+		publisher.subscribe(collector);
+		for (int i = 1; i <= 5; i++) {
+			publisher.dispatch(i);
+		}
+		collector.subscription.request(10);
+		assertEquals(3, publisher.numDropped());
+		return collector.values();
+	}
+	
+	private static final class Collector implements Flow.Subscriber<Object[]> {
+		private final long initialRequest;
+		private final List<Integer> values = new ArrayList<Integer>();
+		Flow.Subscription subscription;
+		boolean completed;
+		Throwable error;
+		
+		Collector(long initialRequest) {
+			this.initialRequest = initialRequest;
+		}
+		
+		synchronized List<Integer> values() {
+			return new ArrayList<Integer>(values);
+		}
+		
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			if (initialRequest > 0) {
+				subscription.request(initialRequest);
+			}
+		}
+		
+		@Override
+		public synchronized void onNext(Object[] args) {
+			values.add((Integer) args[0]);
+		}
+		
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+		}
+		
+		@Override
+		public void onComplete() {
+			completed = true;
+		}
+	}
+}
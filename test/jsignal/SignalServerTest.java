@@ -0,0 +1,159 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SignalServerTest {
+	private SignalServer server;
+	private final List<SignalClient> clients = new ArrayList<SignalClient>();
+	
+	@Before
+	public void startServer() throws IOException {
+		server = new SignalServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		start(server, "server");
+	}
+	
+	@After
+	public void stopServer() {
+		for (SignalClient client : clients) {
+			client.close();
+		}
+		server.close();
+	}
+	
+	@Test
+	public void test_remote_listener_receives_dispatches_in_order() throws Exception {
+		Recorder local = new Recorder(0);
+		Signal signal = new Signal(int.class, String.class);
+		signal.add(local, "receive");
+		ISignalOwner exposed = server.expose(1, signal, int.class, String.class);
+		
+		Recorder remote = new Recorder(1000);
+		ISignal view = connect().signal(1, int.class, String.class);
+		view.add(remote, "receive", false);
+		awaitSubscribers(1, 1);
+		for (int i = 0; i < 1000; i++) {
+			exposed.dispatch(i, i % 2 == 0 ? null : "odd");
+		}
+		assertTrue(remote.latch.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 1000; i++) {
+			assertArrayEquals(new Object[] { i, i % 2 == 0 ? null : "odd" }, remote.dispatches.get(i));
+		}
+		assertEquals(1000, local.dispatches.size());
+		assertEquals(1, exposed.numListeners());
+	}
+	
+	@Test
+	public void test_subscription_follows_listeners() throws Exception {
+		server.expose(1, new Signal(int.class), int.class);
+		ISignal view = connect().signal(1, int.class);
+		Recorder first = new Recorder(0);
+		Recorder second = new Recorder(0);
+		assertEquals(0, server.numSubscribers(1));
+		view.add(first, "receive", false);
+		view.add(second, "receive", false);
+		awaitSubscribers(1, 1);
+		assertTrue(view.remove(first));
+		assertTrue(view.remove(second));
+		awaitSubscribers(1, 0);
+		assertFalse(view.containsListener(first));
+	}
+	
+	@Test
+	public void test_one_dispatch_reaches_many_clients() throws Exception {
+		ISignalOwner exposed = server.expose(1, new Signal(long.class), long.class);
+		Recorder remote = new Recorder(50);
+		for (int i = 0; i < 50; i++) {
+			connect().signal(1, long.class).add(new Recorder(remote.latch), "receive", false);
+		}
+		awaitSubscribers(1, 50);
+		exposed.dispatch(42L);
+		assertTrue(remote.latch.await(10, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	public void test_disconnected_client_is_unsubscribed() throws Exception {
+		server.expose(1, new Signal(int.class), int.class);
+		SignalClient client = connect();
+		client.signal(1, int.class).add(new Recorder(0), "receive", false);
+		awaitSubscribers(1, 1);
+		client.close();
+		awaitSubscribers(1, 0);
+	}
+	
+	@Test
+	public void test_duplicate_signal_id_is_rejected() {
+		server.expose(1, new Signal(int.class), int.class);
+		try {
+			server.expose(1, new Signal(int.class), int.class);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+	}
+	
+	private SignalClient connect() throws IOException {
+		SignalClient client = new SignalClient(server.getAddress());
+		clients.add(client);
+		start(client, "client");
+		return client;
+	}
+	
+	private void awaitSubscribers(int signalId, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (server.numSubscribers(signalId) != count && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		assertEquals(count, server.numSubscribers(signalId));
+	}
+	
+	private static void start(Runnable runnable, String name) {
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	public static class Recorder {
+		final List<Object[]> dispatches = new ArrayList<Object[]>();
+		final CountDownLatch latch;
+		
+		public Recorder(int count) {
+			this(new CountDownLatch(count));
+		}
+		
+		public Recorder(CountDownLatch latch) {
+			this.latch = latch;
+		}
+		
+		public void receive(int value, String text) {
+			dispatches.add(new Object[] { value, text });
+			latch.countDown();
+		}
+		
+		public void receive(int value) {
+			dispatches.add(new Object[] { value });
+			latch.countDown();
+		}
+		
+		public void receive(long value) {
+			dispatches.add(new Object[] { value });
+			latch.countDown();
+		}
+	}
+}
@@ -5,11 +5,16 @@ package jsignal;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.junit.Test;
@@ -155,4 +160,182 @@ public class SignalTest extends TestCase {
 		}
 		assertEquals(0, signal.numListeners());
 	}
+	
+	@Test
+	public void test_listener_exception_is_wrapped() {
+		Signal signal = new Signal(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		IllegalStateException cause = new IllegalStateException();
+		doThrow(cause).when(mockListener).callback(1);
+		signal.add(mockListener, "callback");
+		try {
+			signal.dispatch(1);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+			assertSame(cause, expected.getCause());
+		}
+	}
+	
+	@Test
+	public void test_null_primitive_argument_does_not_dispatch() {
+		Signal signal = new Signal(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback");
+		try {
+			signal.dispatch((Object) null);
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		verify(mockListener, never()).callback(anyInt());
+	}
+	
+	@Test
+	public void test_callback_resolution_is_shared_between_listeners() {
+		Class<?>[] params = { int.class };
+		Delegate first = Delegate.resolve(new SignalListener(), "callback", params);
+		Delegate second = Delegate.resolve(new SignalListener(), "callback", new Class<?>[] { int.class });
+		assertSame(first, second);
+		assertSame(first.getMethod(), second.getMethod());
+	}
+	
+	@Test
+	public void test_slot_delegate_is_the_callback_method() throws NoSuchMethodException {
+		SignalListener listener = new SignalListener();
+		ISlot slot = new Slot(listener, Delegate.resolve(listener, "callback", new Class<?>[] { int.class }), false);
+		assertEquals(SignalListener.class.getMethod("callback", int.class), slot.getDelegate());
+		assertNotNull(slot.getInvoker());
+	}
+	
+	@Test
+	public void test_missing_callback_fails_on_every_add() {
+		Signal signal = new Signal(String.class);
+		for (int i = 0; i < 2; i++) {
+			try {
+				signal.add(new SignalListener(), "callback");
+				fail("Expected exception was not thrown");
+			} catch (SignalException expected) {
+				assertTrue(expected.getCause() instanceof NoSuchMethodException);
+			}
+		}
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_run_to_completion_queues_nested_dispatch() {
+		final List<String> events = new ArrayList<String>();
+		final Signal inner = new Signal();
+		inner.setRunToCompletion(true);
+		inner.add(new Recorder(events, "inner"), "handle");
+		Signal outer = new Signal();
+		outer.setRunToCompletion(true);
+		outer.add(new Recorder(events, "outer", new Runnable() {
+			@Override
+			public void run() {
+				inner.dispatch();
+				events.add("outer done");
+			}
+		}), "handle");
+		outer.dispatch();
+		assertEquals(Arrays.asList("outer", "outer done", "inner"), events);
+	}
+	
+	@Test
+	public void test_run_to_completion_reentrant_dispatch_does_not_recurse() {
+		Signal signal = new Signal();
+		signal.setRunToCompletion(true);
+		Redispatcher listener = new Redispatcher(signal, 100000);
+		signal.add(listener, "handle");
+		signal.dispatch();
+		assertEquals(100000, listener.count);
+	}
+	
+	@Test
+	public void test_run_to_completion_defers_listener_changes() {
+		List<String> events = new ArrayList<String>();
+		final Signal signal = new Signal();
+		signal.setRunToCompletion(true);
+		final Recorder added = new Recorder(events, "added");
+		final Recorder removed = new Recorder(events, "removed");
+		final List<Recorder> mutators = new ArrayList<Recorder>();
+		Recorder mutator = new Recorder(events, "mutator", new Runnable() {
+			@Override
+			public void run() {
+				assertNull(signal.add(added, "handle"));
+				assertTrue(signal.remove(removed));
+				assertTrue(signal.remove(mutators.get(0)));
+			}
+		});
+		mutators.add(mutator);
+		signal.add(mutator, "handle");
+		signal.add(removed, "handle");
+		signal.dispatch();
+		assertFalse(signal.containsListener(mutator));
+		assertTrue(signal.containsListener(added));
+		assertEquals(1, signal.numListeners());
+	}
+	
+	@Test
+	public void test_run_to_completion_discards_queue_on_failure() {
+		List<String> events = new ArrayList<String>();
+		final Signal inner = new Signal();
+		inner.setRunToCompletion(true);
+		inner.add(new Recorder(events, "inner"), "handle");
+		Signal outer = new Signal();
+		outer.setRunToCompletion(true);
+		outer.add(new Recorder(events, "outer", new Runnable() {
+			@Override
+			public void run() {
+				inner.dispatch();
+				throw new IllegalStateException();
+			}
+		}), "handle");
+		try {
+			outer.dispatch();
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+		assertEquals(Arrays.asList("outer"), events);
+		inner.dispatch();
+		assertEquals(Arrays.asList("outer", "inner"), events);
+	}
+	
+	public static class Recorder {
+		private final List<String> events;
+		private final String name;
+		private final Runnable action;
+		
+		public Recorder(List<String> events, String name) {
+			this(events, name, null);
+		}
+		
+		public Recorder(List<String> events, String name, Runnable action) {
+			this.events = events;
+			this.name = name;
+			this.action = action;
+		}
+		
+		public void handle() {
+			events.add(name);
+			if (action != null) {
+				action.run();
+			}
+		}
+	}
+	
+	public static class Redispatcher {
+		private final Signal signal;
+		private final int limit;
+		int count;
+		
+		public Redispatcher(Signal signal, int limit) {
+			this.signal = signal;
+			this.limit = limit;
+		}
+		
+		public void handle() {
+			if (++count < limit) {
+				signal.dispatch();
+			}
+		}
+	}
 }
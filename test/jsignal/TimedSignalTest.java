@@ -0,0 +1,127 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class TimedSignalTest extends TestCase {
+	
+	@Test
+	public void test_debounce_dispatches_latest_after_quiet_window() {
+		ManualScheduler scheduler = new ManualScheduler();
+		SignalListener mockListener = mock(SignalListener.class);
+		ISignalOwner signal = Signals.debounce(new Signal(int.class), 100, TimeUnit.MILLISECONDS, scheduler);
+		signal.add(mockListener, "callback", false);
+		signal.dispatch(1);
+		scheduler.advance(60, TimeUnit.MILLISECONDS);
+		signal.dispatch(2);
+		scheduler.advance(60, TimeUnit.MILLISECONDS);
+		signal.dispatch(3);
+		scheduler.advance(99, TimeUnit.MILLISECONDS);
+		verify(mockListener, never()).callback(3);
+		scheduler.advance(1, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(1)).callback(3);
+		verify(mockListener, never()).callback(1);
+		verify(mockListener, never()).callback(2);
+		assertEquals(0, scheduler.numPending());
+	}
+	
+	@Test
+	public void test_throttle_leading_and_trailing() {
+		ManualScheduler scheduler = new ManualScheduler();
+		SignalListener mockListener = mock(SignalListener.class);
+		ISignalOwner signal = Signals.throttle(new Signal(int.class), 100, TimeUnit.MILLISECONDS, true, true, scheduler);
+		signal.add(mockListener, "callback", false);
+		signal.dispatch(1);
+		verify(mockListener, times(1)).callback(1);
+		signal.dispatch(2);
+		signal.dispatch(3);
+		scheduler.advance(100, TimeUnit.MILLISECONDS);
+		verify(mockListener, never()).callback(2);
+		verify(mockListener, times(1)).callback(3);
+		// the trailing dispatch opened a new window
+		signal.dispatch(4);
+		verify(mockListener, never()).callback(4);
+		scheduler.advance(100, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(1)).callback(4);
+		scheduler.advance(100, TimeUnit.MILLISECONDS);
+		assertEquals(0, scheduler.numPending());
+	}
+	
+	@Test
+	public void test_throttle_leading_only_drops_rest_of_window() {
+		ManualScheduler scheduler = new ManualScheduler();
+		SignalListener mockListener = mock(SignalListener.class);
+		ISignalOwner signal = Signals.throttle(new Signal(int.class), 100, TimeUnit.MILLISECONDS, true, false, scheduler);
+		signal.add(mockListener, "callback", false);
+		signal.dispatch(1);
+		signal.dispatch(2);
+		scheduler.advance(100, TimeUnit.MILLISECONDS);
+		signal.dispatch(3);
+		verify(mockListener, times(1)).callback(1);
+		verify(mockListener, never()).callback(2);
+		verify(mockListener, times(1)).callback(3);
+	}
+	
+	@Test
+	public void test_throttle_needs_an_edge() {
+		try {
+			Signals.throttle(new Signal(), 1, TimeUnit.SECONDS, false, false, new ManualScheduler());
+			fail("Expected exception was not thrown");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+	
+	@Test
+	public void test_sample_dispatches_latest_per_period() {
+		ManualScheduler scheduler = new ManualScheduler();
+		SignalListener mockListener = mock(SignalListener.class);
+		ISignalOwner signal = Signals.sample(new Signal(int.class), 100, TimeUnit.MILLISECONDS, scheduler);
+		signal.add(mockListener, "callback", false);
+		signal.dispatch(1);
+		signal.dispatch(2);
+		scheduler.advance(100, TimeUnit.MILLISECONDS);
+		verify(mockListener, never()).callback(1);
+		verify(mockListener, times(1)).callback(2);
+		scheduler.advance(300, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(1)).callback(2);
+		assertEquals(0, scheduler.numPending());
+		signal.dispatch(3);
+		scheduler.advance(100, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(1)).callback(3);
+	}
+	
+	@Test
+	public void test_shared_scheduler_runs_debounced_dispatch() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(1);
+		ISignalOwner debounced = Signals.debounce(new Latch(latch).signal, 10, TimeUnit.MILLISECONDS);
+		debounced.dispatch();
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+	
+	public static class Latch {
+		final Signal signal = new Signal();
+		private final CountDownLatch latch;
+		
+		public Latch(CountDownLatch latch) {
+			this.latch = latch;
+			signal.add(this, "countDown");
+		}
+		
+		public void countDown() {
+			latch.countDown();
+		}
+	}
+}
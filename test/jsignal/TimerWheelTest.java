@@ -0,0 +1,158 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class TimerWheelTest extends TestCase {
+	
+	@Test
+	public void test_tasks_run_on_their_tick_across_levels() {
+		final AtomicLong now = new AtomicLong();
+		TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 4, now::get);
+		List<Integer> delays = new ArrayList<Integer>();
+		for (int delay = 1; delay <= 300; delay++) {
+			delays.add(delay);
+		}
+		Collections.shuffle(delays, new Random(42));
+		final long[] ranAt = new long[301];
+		for (final int delay : delays) {
+			wheel.schedule(new Runnable() {
+				@Override
+				public void run() {
+					ranAt[delay] = now.get();
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+		assertEquals(300, wheel.numPending());
+		for (int tick = 1; tick <= 300; tick++) {
+			now.set(TimeUnit.MILLISECONDS.toNanos(tick));
+			wheel.advance();
+		}
+		for (int delay = 1; delay <= 300; delay++) {
+			assertEquals(TimeUnit.MILLISECONDS.toNanos(delay), ranAt[delay]);
+		}
+		assertEquals(0, wheel.numPending());
+	}
+	
+	@Test
+	public void test_task_never_runs_early() {
+		AtomicLong now = new AtomicLong();
+		TimerWheel wheel = new TimerWheel(10, TimeUnit.MILLISECONDS, 8, now::get);
+		CountDownLatch latch = new CountDownLatch(1);
+		wheel.schedule(latch::countDown, 15, TimeUnit.MILLISECONDS);
+		now.set(TimeUnit.MILLISECONDS.toNanos(19));
+		wheel.advance();
+		assertEquals(1, latch.getCount());
+		now.set(TimeUnit.MILLISECONDS.toNanos(20));
+		wheel.advance();
+		assertEquals(0, latch.getCount());
+	}
+	
+	@Test
+	public void test_cancel() {
+		AtomicLong now = new AtomicLong();
+		TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 4, now::get);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		CountDownLatch kept = new CountDownLatch(1);
+		ITimeout timeout = wheel.schedule(cancelled::countDown, 100, TimeUnit.MILLISECONDS);
+		ITimeout other = wheel.schedule(kept::countDown, 100, TimeUnit.MILLISECONDS);
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+		assertEquals(1, wheel.numPending());
+		now.set(TimeUnit.MILLISECONDS.toNanos(100));
+		wheel.advance();
+		assertEquals(1, cancelled.getCount());
+		assertEquals(0, kept.getCount());
+		assertFalse(other.cancel());
+	}
+	
+	@Test
+	public void test_dispatch_after() {
+		ManualScheduler scheduler = new ManualScheduler();
+		SignalListener mockListener = mock(SignalListener.class);
+		Signal signal = new Signal(int.class);
+		signal.add(mockListener, "callback");
+		Signals.dispatchAfter(scheduler, signal, 50, TimeUnit.MILLISECONDS, 1);
+		ITimeout timeout = Signals.dispatchAfter(scheduler, signal, 50, TimeUnit.MILLISECONDS, 2);
+		assertTrue(timeout.cancel());
+		scheduler.advance(49, TimeUnit.MILLISECONDS);
+		verify(mockListener, never()).callback(1);
+		scheduler.advance(1, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(1)).callback(1);
+		verify(mockListener, never()).callback(2);
+		assertEquals(0, scheduler.numPending());
+	}
+	
+	@Test
+	public void test_dispatch_at_fixed_rate_until_cancelled() {
+		ManualScheduler scheduler = new ManualScheduler();
+		SignalListener mockListener = mock(SignalListener.class);
+		Signal signal = new Signal(int.class);
+		signal.add(mockListener, "callback");
+		ITimeout timeout = Signals.dispatchAtFixedRate(scheduler, signal, 10, 100, TimeUnit.MILLISECONDS, 7);
+		scheduler.advance(10, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(1)).callback(7);
+		scheduler.advance(300, TimeUnit.MILLISECONDS);
+		verify(mockListener, times(4)).callback(7);
+		assertTrue(timeout.cancel());
+		assertFalse(timeout.cancel());
+		scheduler.advance(1, TimeUnit.SECONDS);
+		verify(mockListener, times(4)).callback(7);
+		assertEquals(0, scheduler.numPending());
+	}
+	
+	@Test
+	public void test_dispatch_at_fixed_rate_needs_a_period() {
+		try {
+			Signals.dispatchAtFixedRate(new ManualScheduler(), new Signal(), 0, 0, TimeUnit.SECONDS);
+			fail("Expected exception was not thrown");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+	
+	@Test
+	public void test_shared_scheduler_runs_scheduled_dispatch() throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(3);
+		ISignalOwner signal = Signals.synchronizedSignal(new TimedSignalTest.Latch(latch).signal);
+		ITimeout timeout = Signals.dispatchAtFixedRate(signal, 0, 5, TimeUnit.MILLISECONDS);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(timeout.cancel());
+	}
+	
+	@Test
+	public void test_task_error_does_not_stop_the_wheel() throws InterruptedException {
+		TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 8);
+		wheel.schedule(new Runnable() {
+			@Override
+			public void run() {
+				throw new AssertionError("failed");
+			}
+		}, 1, TimeUnit.MILLISECONDS);
+		final CountDownLatch latch = new CountDownLatch(1);
+		wheel.schedule(new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+			}
+		}, 20, TimeUnit.MILLISECONDS);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+}
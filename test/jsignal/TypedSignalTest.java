@@ -0,0 +1,127 @@
+// http://paulmoore.mit-license.org/
+
+package jsignal;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import jsignal.test.SignalListener;
+
+public class TypedSignalTest extends TestCase {
+
+	@Test
+	public void test_typed_listener_receives_arguments() {
+		Signal2<String, Double> signal = new Signal2<String, Double>();
+		final List<Object> received = new ArrayList<Object>();
+		signal.add((name, balance) -> {
+			received.add(name);
+			received.add(balance);
+		});
+		signal.dispatch("Paul", 17.06);
+		assertEquals(2, received.size());
+		assertEquals("Paul", received.get(0));
+		assertEquals(17.06, received.get(1));
+	}
+	
+	@Test
+	public void test_reflective_listener_is_adapted() {
+		Signal3<Integer, Object, String> signal = new Signal3<Integer, Object, String>(int.class, Object.class, String.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		Object arg1 = new Object();
+		signal.add(mockListener, "callback");
+		assertTrue(signal.containsListener(mockListener));
+		signal.dispatch(1, arg1, "test");
+		verify(mockListener, times(1)).callback(1, arg1, "test");
+	}
+	
+	@Test
+	public void test_untyped_dispatch_reaches_typed_listener() {
+		Signal1<Integer> signal = new Signal1<Integer>(int.class);
+		final int[] received = new int[1];
+		signal.add(value -> received[0] = value);
+		((IDispatcher) signal).dispatch(5);
+		assertEquals(5, received[0]);
+		try {
+			((IDispatcher) signal).dispatch("five");
+			fail("Expected exception was not thrown");
+		} catch (SignalException expected) {
+		}
+	}
+	
+	@Test
+	public void test_addOnce_only_fires_once() {
+		Signal0 signal = new Signal0();
+		final int[] count = new int[1];
+		signal.add(() -> count[0]++, true);
+		signal.dispatch();
+		signal.dispatch();
+		assertEquals(1, count[0]);
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_addOnce_fires_once_under_reentrant_dispatch() {
+		final Signal1<Integer> signal = new Signal1<Integer>(int.class);
+		final int[] count = new int[1];
+		signal.add(value -> {
+			if (value == 0) {
+				signal.dispatch(1);
+			}
+		});
+		signal.add(value -> count[0]++, true);
+		signal.dispatch(0);
+		assertEquals(1, count[0]);
+		assertEquals(1, signal.numListeners());
+	}
+	
+	@Test
+	public void test_listener_added_twice_doesnt_duplicate() {
+		Signal0 signal = new Signal0();
+		final int[] count = new int[1];
+		Signal0.Listener listener = () -> count[0]++;
+		assertNull(signal.add(listener));
+		assertSame(listener, signal.add(listener));
+		assertEquals(1, signal.numListeners());
+		signal.dispatch();
+		assertEquals(1, count[0]);
+	}
+	
+	@Test
+	public void test_listener_can_remove_itself_during_dispatch() {
+		final Signal0 signal = new Signal0();
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(new Signal0.Listener() {
+			@Override
+			public void handle() {
+				signal.remove(this);
+			}
+		});
+		signal.add(mockListener, "callback");
+		signal.dispatch();
+		signal.dispatch();
+		verify(mockListener, times(2)).callback();
+		assertEquals(1, signal.numListeners());
+	}
+	
+	@Test
+	public void test_synchronized_wrapper_dispatches() {
+		Signal1<Integer> signal = new Signal1<Integer>(int.class);
+		SignalListener mockListener = mock(SignalListener.class);
+		ISignalOwner safeSignal = Signals.synchronizedSignal(signal);
+		safeSignal.add(mockListener, "callback", false);
+		safeSignal.dispatch(3);
+		verify(mockListener, times(1)).callback(3);
+		assertTrue(safeSignal.remove(mockListener));
+		signal.dispatch(4);
+		verify(mockListener, never()).callback(4);
+	}
+}
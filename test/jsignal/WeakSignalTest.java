@@ -34,10 +34,6 @@ public class WeakSignalTest {
 		assertEquals(1, signal.numListeners());
 	}
 	
-	/**
-	 * Unfortunately I can't properly test this functionality due to the nature of the Garbage collector.
-	 * If I find a worth-while solution I will fix the test.
-	 */
 	@Test
 	public void test_weak_reference_removes_listener() {
 		WeakSignal signal = new WeakSignal();
@@ -45,17 +41,74 @@ public class WeakSignalTest {
 		signal.add(listener, "callback");
 		WeakReference<Object> ref = new WeakReference<Object>(listener);
 		listener = null;
-		// if (!forceGC(ref)) {
-		// 	fail("Test inconclusive - Garbage Collection could not be forced.");
-		// }
+		if (!forceGC(ref)) {
+			fail("Test inconclusive - Garbage Collection could not be forced.");
+		}
+		assertEquals(0, signal.numListeners());
+		signal.dispatch();
+	}
+	
+	@Test
+	public void test_weak_listener_on_signal_is_expunged_without_dispatch() {
+		Signal signal = new Signal();
+		SignalListener strong = new SignalListener();
+		SignalListener listener = new SignalListener();
+		signal.add(strong, "callback");
+		signal.add(listener, "callback", false, ReferenceStrength.WEAK);
+		assertEquals(2, signal.numListeners());
+		WeakReference<Object> ref = new WeakReference<Object>(listener);
+		listener = null;
+		if (!forceGC(ref)) {
+			fail("Test inconclusive - Garbage Collection could not be forced.");
+		}
+		assertEquals(1, signal.numListeners());
+		assertTrue(signal.containsListener(strong));
+	}
+	
+	@Test
+	public void test_weak_listener_on_priority_signal_is_expunged() {
+		PrioritySignal<Integer> signal = new PrioritySignal<Integer>();
+		SignalListener mockListener = mock(SignalListener.class);
+		SignalListener listener = new SignalListener();
+		signal.add(mockListener, "callback", false, 2);
+		signal.add(listener, "callback", false, 1, ReferenceStrength.WEAK);
+		WeakReference<Object> ref = new WeakReference<Object>(listener);
+		listener = null;
+		if (!forceGC(ref)) {
+			fail("Test inconclusive - Garbage Collection could not be forced.");
+		}
+		assertEquals(1, signal.numListeners());
+		signal.dispatch();
+		verify(mockListener, times(1)).callback();
+	}
+	
+	@Test
+	public void test_weak_default_applies_through_synchronized_wrapper() {
+		PrioritySignal<Integer> prioritySignal = new PrioritySignal<Integer>();
+		prioritySignal.setReferenceStrength(ReferenceStrength.WEAK);
+		ISignalOwner signal = Signals.synchronizedSignal((ISignalOwner) prioritySignal);
+		SignalListener listener = new SignalListener();
+		signal.add(listener, "callback", false);
+		WeakReference<Object> ref = new WeakReference<Object>(listener);
+		listener = null;
+		if (!forceGC(ref)) {
+			fail("Test inconclusive - Garbage Collection could not be forced.");
+		}
+		assertEquals(0, signal.numListeners());
+	}
+	
+	@Test
+	public void test_soft_reference_retains_reachable_listener() {
+		Signal signal = new Signal();
+		SignalListener mockListener = mock(SignalListener.class);
+		signal.add(mockListener, "callback", false, ReferenceStrength.SOFT);
+		forceGC(new WeakReference<Object>(new Object()));
+		assertTrue(signal.containsListener(mockListener));
 		signal.dispatch();
-		// assertEquals(0, signal.numListeners());
+		verify(mockListener, times(1)).callback();
 	}
 	
 	/**
-	 * Dosn't work.
-	 * Try as I might, I can't force the Garbage Collector to run when I need it to.
-	 * 
 	 * @see <a href="http://hg.netbeans.org/main-silver/annotate/63b0eb0ebe1a/nbjunit/src/org/netbeans/junit/NbTestCase.java">NetBeans GC assertion</a>
 	 */
 	private boolean forceGC(Reference<?> ref) {
@@ -12,4 +12,7 @@ public class SignalListener {
 	
 	public void callback(int arg0, Object arg1, String arg2) {
 	}
+	
+	public void callback(Object[][] batch) {
+	}
 }